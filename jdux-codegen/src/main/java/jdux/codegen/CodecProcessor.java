@@ -0,0 +1,309 @@
+package jdux.codegen;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.RecordComponentElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Generates a RecordCodec for each record annotated with @JsonCodec, and lists them in
+ * META-INF/services/jdux.RecordCodec so that JDux finds them at runtime.
+ *
+ * The codec for a record is named after it, with any enclosing types joined by underscores, and placed in the same
+ * package, e.g. Outer.UserRecord gets Outer_UserRecordJsonCodec.
+ */
+@SupportedAnnotationTypes("jdux.JsonCodec")
+public class CodecProcessor extends AbstractProcessor {
+
+    private static final String SERVICES = "META-INF/services/jdux.RecordCodec";
+
+    private final List<String> codecs = new ArrayList<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment round) {
+        for (TypeElement annotation : annotations) {
+            for (Element element : round.getElementsAnnotatedWith(annotation)) {
+                if (element.getKind() != ElementKind.RECORD) {
+                    error(element, "@JsonCodec can only be used on records");
+                } else if (isPrivate((TypeElement) element)) {
+                    error(element, "@JsonCodec records must be visible to their package");
+                } else {
+                    generate((TypeElement) element);
+                }
+            }
+        }
+        if (round.processingOver() && !codecs.isEmpty())
+            writeServices();
+        return true;
+    }
+
+    private static boolean isPrivate(TypeElement type) {
+        for (Element e = type; e instanceof TypeElement; e = e.getEnclosingElement()) {
+            if (e.getModifiers().contains(Modifier.PRIVATE))
+                return true;
+        }
+        return false;
+    }
+
+    private void generate(TypeElement record) {
+        final String packageName = packageOf(record).getQualifiedName().toString();
+        final String codecName = codecName(record);
+        final String qualifiedName = packageName.isEmpty() ? codecName : packageName + '.' + codecName;
+        try (PrintWriter out = new PrintWriter(processingEnv.getFiler().createSourceFile(qualifiedName, record).openWriter())) {
+            new CodecWriter(processingEnv, record, packageName, codecName).write(out);
+            codecs.add(qualifiedName);
+        } catch (IOException e) {
+            error(record, "Could not write codec: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Write the service registry, keeping entries from earlier compilations so incremental builds don't drop them.
+     */
+    private void writeServices() {
+        final Set<String> registered = new LinkedHashSet<>(readServices());
+        registered.addAll(codecs);
+        try {
+            final FileObject file = processingEnv.getFiler()
+                .createResource(StandardLocation.CLASS_OUTPUT, "", SERVICES);
+            try (Writer out = file.openWriter()) {
+                for (String codec : registered)
+                    out.write(codec + "\n");
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Could not register codecs: " + e.getMessage());
+        }
+    }
+
+    private List<String> readServices() {
+        try {
+            final FileObject file = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", SERVICES);
+            final List<String> entries = new ArrayList<>();
+            try (BufferedReader in = new BufferedReader(file.openReader(true))) {
+                for (String line = in.readLine(); line != null; line = in.readLine()) {
+                    line = line.strip();
+                    if (!line.isEmpty() && !line.startsWith("#"))
+                        entries.add(line);
+                }
+            }
+            return entries;
+        } catch (IOException e) {
+            return List.of();
+        }
+    }
+
+    private static PackageElement packageOf(Element element) {
+        while (!(element instanceof PackageElement))
+            element = element.getEnclosingElement();
+        return (PackageElement) element;
+    }
+
+    private static String codecName(TypeElement record) {
+        final StringBuilder name = new StringBuilder(record.getSimpleName());
+        for (Element e = record.getEnclosingElement(); e instanceof TypeElement; e = e.getEnclosingElement())
+            name.insert(0, '_').insert(0, e.getSimpleName());
+        return name.append("JsonCodec").toString();
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+
+    /**
+     * Writes the source of one codec.
+     */
+    private static final class CodecWriter {
+
+        private final ProcessingEnvironment env;
+        private final String packageName, codecName, recordName;
+        private final List<? extends RecordComponentElement> components;
+
+        CodecWriter(ProcessingEnvironment env, TypeElement record, String packageName, String codecName) {
+            this.env = env;
+            this.packageName = packageName;
+            this.codecName = codecName;
+            this.recordName = record.getQualifiedName().toString();
+            this.components = record.getRecordComponents();
+        }
+
+        void write(PrintWriter out) {
+            if (!packageName.isEmpty())
+                out.println("package " + packageName + ";");
+            out.println();
+            out.println("import jdux.JsonNode;");
+            out.println("import jdux.JsonReader;");
+            out.println("import jdux.JsonToken;");
+            out.println("import jdux.ObjectNode;");
+            out.println("import jdux.RecordCodec;");
+            out.println();
+            out.println("@javax.annotation.processing.Generated(\"jdux.codegen.CodecProcessor\")");
+            out.println("@SuppressWarnings(\"unchecked\")");
+            out.println("public final class " + codecName + " implements RecordCodec<" + recordName + "> {");
+            out.println();
+            out.print("    private static final String[] NAMES = {");
+            for (int i = 0; i < components.size(); i++)
+                out.print((i == 0 ? " \"" : ", \"") + name(i) + "\"");
+            out.println(" };");
+            for (int i = 0; i < components.size(); i++) {
+                if (isGeneric(i))
+                    out.println("    private static final java.lang.reflect.Type TYPE_" + name(i)
+                        + " = RecordCodec.componentType(" + recordName + ".class, " + i + ");");
+            }
+            out.println();
+            out.println("    @Override");
+            out.println("    public Class<" + recordName + "> type() {");
+            out.println("        return " + recordName + ".class;");
+            out.println("    }");
+            out.println();
+            writeToNode(out);
+            writeFromNode(out);
+            writeRead(out);
+            out.println("}");
+        }
+
+        private void writeToNode(PrintWriter out) {
+            out.println("    @Override");
+            out.println("    public JsonNode toNode(" + recordName + " value) {");
+            out.print("        return RecordCodec.objectNode(NAMES, new Object[] {");
+            for (int i = 0; i < components.size(); i++)
+                out.print((i == 0 ? " value." : ", value.") + name(i) + "()");
+            out.println(" });");
+            out.println("    }");
+            out.println();
+        }
+
+        private void writeFromNode(PrintWriter out) {
+            out.println("    @Override");
+            out.println("    public " + recordName + " fromNode(ObjectNode node) {");
+            declareLocals(out);
+            out.println("        for (var children = node.childrenIter(); children.hasNext(); ) {");
+            out.println("            final JsonNode.LabelledNode child = children.next();");
+            out.println("            switch (child.label()) {");
+            for (int i = 0; i < components.size(); i++) {
+                out.println("                case \"" + name(i) + "\":");
+                out.println("                    " + local(i) + " = " + cast(i) + "child.unlabelled().asA(" + typeArg(i) + ");");
+                out.println("                    break;");
+            }
+            out.println("                default:");
+            out.println("                    break;");
+            out.println("            }");
+            out.println("        }");
+            writeConstruct(out);
+            out.println("    }");
+            out.println();
+        }
+
+        private void writeRead(PrintWriter out) {
+            out.println("    @Override");
+            out.println("    public " + recordName + " read(JsonReader reader) {");
+            declareLocals(out);
+            out.println("        for (JsonToken token = reader.next(); token != JsonToken.END_OBJECT; token = reader.next()) {");
+            out.println("            switch (reader.currentName()) {");
+            for (int i = 0; i < components.size(); i++) {
+                out.println("                case \"" + name(i) + "\":");
+                out.println("                    " + local(i) + " = " + cast(i) + "reader.readValue(" + typeArg(i) + ");");
+                out.println("                    break;");
+            }
+            out.println("                default:");
+            out.println("                    reader.next();");
+            out.println("                    reader.skipChildren();");
+            out.println("                    break;");
+            out.println("            }");
+            out.println("        }");
+            writeConstruct(out);
+            out.println("    }");
+            out.println();
+        }
+
+        private void declareLocals(PrintWriter out) {
+            for (int i = 0; i < components.size(); i++)
+                out.println("        " + boxedType(i) + " " + local(i) + " = null;");
+        }
+
+        private void writeConstruct(PrintWriter out) {
+            out.print("        return new " + recordName + "(");
+            for (int i = 0; i < components.size(); i++) {
+                if (i > 0)
+                    out.print(", ");
+                final TypeMirror type = type(i);
+                if (type.getKind().isPrimitive())
+                    out.print(local(i) + " == null ? " + defaultValue(type) + " : " + local(i));
+                else
+                    out.print(local(i));
+            }
+            out.println(");");
+        }
+
+        private String name(int i) {
+            return components.get(i).getSimpleName().toString();
+        }
+
+        /**
+         * Local variable for a component, suffixed so it can't clash with the generated method's own names.
+         */
+        private String local(int i) {
+            return name(i) + '$';
+        }
+
+        private TypeMirror type(int i) {
+            return components.get(i).asType();
+        }
+
+        private boolean isGeneric(int i) {
+            return !env.getTypeUtils().isSameType(type(i), env.getTypeUtils().erasure(type(i)));
+        }
+
+        private String boxedType(int i) {
+            final TypeMirror type = type(i);
+            if (type.getKind().isPrimitive())
+                return env.getTypeUtils().boxedClass((PrimitiveType) type).getQualifiedName().toString();
+            return type.toString();
+        }
+
+        private String typeArg(int i) {
+            if (isGeneric(i))
+                return "TYPE_" + name(i);
+            return env.getTypeUtils().erasure(type(i)) + ".class";
+        }
+
+        private String cast(int i) {
+            return isGeneric(i) ? "(" + boxedType(i) + ") " : "";
+        }
+
+        private static String defaultValue(TypeMirror type) {
+            if (type.getKind() == TypeKind.BOOLEAN)
+                return "false";
+            if (type.getKind() == TypeKind.CHAR)
+                return "'\\0'";
+            return "(" + type + ") 0";
+        }
+
+    }
+
+}
@@ -0,0 +1,126 @@
+package jdux.codegen;
+
+import jdux.JDux;
+import org.junit.Test;
+
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CodecProcessorTest {
+
+    private static final String ORDER = """
+        package sample;
+
+        import jdux.JsonCodec;
+        import java.util.List;
+
+        @JsonCodec
+        public record Order(long id, String customer, List<String> items, boolean paid, Line line) {
+            @JsonCodec
+            public record Line(String sku, double price) {}
+        }
+        """;
+
+    /**
+     * Runs inside a class loader that holds jdux and the generated codecs together, so that JDux finds them.
+     */
+    private static final String ROUND_TRIP = """
+        package sample;
+
+        import jdux.*;
+        import java.util.List;
+        import java.util.ServiceLoader;
+        import java.util.function.Supplier;
+
+        public class RoundTrip implements Supplier<String> {
+            public String get() {
+                boolean generated = false;
+                for (RecordCodec<?> codec : ServiceLoader.load(RecordCodec.class, JDux.class.getClassLoader()))
+                    generated |= codec.type() == Order.class;
+                check(generated, "codec registered");
+                Order order = new Order(7, "Ann", List.of("a", "b"), true, new Order.Line("x-1", 2.5));
+                String json = new JsonWriter().toString(JDux.node(order));
+                check(order.equals(JDux.parse(json).asA(Order.class)), "asA");
+                check(order.equals(JDux.parse(json, Order.class)), "parse");
+                String escaped = json.replace("\\"customer\\"", "\\"c\\\\u0075stomer\\"").replace("{", "{\\"extra\\":[1,{}],");
+                check(order.equals(JDux.parse(escaped, Order.class)), "escaped and unknown names");
+                return json;
+            }
+            private static void check(boolean ok, String what) {
+                if (!ok)
+                    throw new AssertionError(what);
+            }
+        }
+        """;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void generatedCodecsRoundTrip() throws Exception {
+        final Path dir = Files.createTempDirectory("codegen");
+        final Path sources = Files.createDirectories(dir.resolve("src/sample")), classes = dir.resolve("classes");
+        Files.createDirectories(classes);
+        Files.writeString(sources.resolve("Order.java"), ORDER);
+        Files.writeString(sources.resolve("RoundTrip.java"), ROUND_TRIP);
+        final URL jdux = JDux.class.getProtectionDomain().getCodeSource().getLocation();
+        compile(classes, Path.of(jdux.toURI()), sources.resolve("Order.java"), sources.resolve("RoundTrip.java"));
+
+        assertTrue(Files.exists(classes.resolve("sample/OrderJsonCodec.class")));
+        assertTrue(Files.exists(classes.resolve("sample/Order_LineJsonCodec.class")));
+        assertEquals(Set.of("sample.OrderJsonCodec", "sample.Order_LineJsonCodec"),
+            Set.copyOf(Files.readAllLines(classes.resolve("META-INF/services/jdux.RecordCodec"))));
+
+        try (URLClassLoader loader = new URLClassLoader(new URL[] { classes.toUri().toURL(), jdux },
+                ClassLoader.getPlatformClassLoader())) {
+            final Supplier<String> roundTrip = (Supplier<String>) loader.loadClass("sample.RoundTrip")
+                .getDeclaredConstructor().newInstance();
+            assertEquals("{\"id\":7,\"customer\":\"Ann\",\"items\":[\"a\",\"b\"],\"paid\":true,"
+                + "\"line\":{\"sku\":\"x-1\",\"price\":2.5}}", roundTrip.get());
+        }
+    }
+
+    @Test
+    public void incrementalCompilationKeepsRegisteredCodecs() throws Exception {
+        final Path dir = Files.createTempDirectory("codegen");
+        final Path sources = Files.createDirectories(dir.resolve("src/sample")), classes = dir.resolve("classes");
+        Files.createDirectories(classes);
+        Files.writeString(sources.resolve("Order.java"), ORDER);
+        Files.writeString(sources.resolve("Invoice.java"), """
+            package sample;
+
+            @jdux.JsonCodec
+            public record Invoice(long id) {}
+            """);
+        final Path jdux = Path.of(JDux.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        compile(classes, jdux, sources.resolve("Order.java"));
+        compile(classes, jdux, sources.resolve("Invoice.java"));
+        compile(classes, jdux, sources.resolve("Invoice.java"));
+
+        assertEquals(List.of("sample.OrderJsonCodec", "sample.Order_LineJsonCodec", "sample.InvoiceJsonCodec"),
+            Files.readAllLines(classes.resolve("META-INF/services/jdux.RecordCodec")));
+    }
+
+    private static void compile(Path classes, Path classpath, Path... sources) throws IOException {
+        final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        try (StandardJavaFileManager files = compiler.getStandardFileManager(null, null, null)) {
+            final Iterable<? extends JavaFileObject> units = files.getJavaFileObjects(sources);
+            final JavaCompiler.CompilationTask task = compiler.getTask(null, files, null,
+                List.of("-d", classes.toString(), "-classpath", classpath.toString()), null, units);
+            task.setProcessors(List.of(new CodecProcessor()));
+            assertTrue("compilation failed", task.call());
+        }
+    }
+
+}
@@ -16,6 +16,8 @@ public interface ArrayNode extends JsonNode {
     @SuppressWarnings("unchecked")
     @Override
     default <E> E asA(Class<E> type) {
+        if (PrimitiveArrays.isPrimitiveArray(type))
+            return (E) PrimitiveArrays.fromNodes(type.getComponentType(), childrenIter());
         if (type.isArray()) {
             return (E) children()
                 .map(n -> n.asA(type.getComponentType()))
@@ -116,7 +116,6 @@ class BasicTextInput implements TextInput {
         if (this.closed)
             return;
         try {
-            TextInput.BUFFER_POOL.put(buffer);
             onClose.run();
             if (reader instanceof AutoCloseable ac)
                 ac.close();
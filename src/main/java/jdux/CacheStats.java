@@ -0,0 +1,16 @@
+package jdux;
+
+/**
+ * Hit and miss counts for one of the caches kept by JDux.
+ */
+public record CacheStats(long hits, long misses) {
+
+    public long requests() {
+        return hits + misses;
+    }
+
+    public double hitRate() {
+        return requests() == 0 ? 0.0 : (double) hits / requests();
+    }
+
+}
@@ -0,0 +1,198 @@
+package jdux;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Text input that is pushed to rather than pulled from.  Chunks are appended as they arrive, and running out of
+ * buffered text before the end of input has been signalled throws {@link Incomplete} instead of blocking.  Readers
+ * rewind to the last complete token using index(long) and try again once more text is fed.
+ *
+ * Text before the current position is discarded on each feed.
+ */
+final class ChunkedTextInput implements TextInput {
+
+    /**
+     * Signals that more input is needed.  Thrown without a stack trace since it is used for control flow.
+     */
+    static final class Incomplete extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+        private Incomplete() {
+            super("More input needed", null, false, false);
+        }
+    }
+
+    private static final Incomplete INCOMPLETE = new Incomplete();
+
+    private final CharsetDecoder decoder = UTF_8.newDecoder();
+    private final ByteBuffer partial = ByteBuffer.allocate(4);
+
+    private char[] chars = new char[1024];
+    private int position, limit;
+    private long offset;
+    private boolean finished;
+
+    /**
+     * Append decoded UTF-8 bytes.  A multi-byte sequence split across chunks is held back until it is complete.
+     */
+    ChunkedTextInput feed(ByteBuffer bytes) {
+        ensureCapacity(bytes.remaining() + partial.position());
+        final CharBuffer out = CharBuffer.wrap(chars, limit, chars.length - limit);
+        while (partial.position() > 0 && bytes.hasRemaining()) {
+            partial.put(bytes.get()).flip();
+            check(decoder.decode(partial, out, false));
+            partial.compact();
+        }
+        check(decoder.decode(bytes, out, false));
+        partial.put(bytes);
+        limit = out.position();
+        return this;
+    }
+
+    ChunkedTextInput feed(CharBuffer text) {
+        final int length = text.remaining();
+        ensureCapacity(length);
+        text.get(chars, limit, length);
+        limit += length;
+        return this;
+    }
+
+    ChunkedTextInput feed(String text) {
+        ensureCapacity(text.length());
+        text.getChars(0, text.length(), chars, limit);
+        limit += text.length();
+        return this;
+    }
+
+    /**
+     * Signal that no more input will be fed.
+     */
+    ChunkedTextInput finish() {
+        if (partial.position() > 0)
+            throw new JsonParseException("Truncated UTF-8 sequence at end of input", this);
+        finished = true;
+        return this;
+    }
+
+    boolean isFinished() {
+        return finished;
+    }
+
+    private void check(CoderResult result) {
+        if (result.isError())
+            throw new JsonParseException("Malformed UTF-8 input fed after index " + (offset + limit), this);
+    }
+
+    /**
+     * Drop text that has been read, then make room for more.
+     */
+    private void ensureCapacity(int length) {
+        final int consumed = position;
+        if (consumed > 0) {
+            System.arraycopy(chars, consumed, chars, 0, limit - consumed);
+            position -= consumed;
+            limit -= consumed;
+            offset += consumed;
+        }
+        if (limit + length > chars.length)
+            chars = Arrays.copyOf(chars, Math.max(chars.length * 2, limit + length));
+    }
+
+    private void require(int n) {
+        if (limit - position < n)
+            throw finished ? new IllegalArgumentException("Could not read " + n + ", reached end of input.") : INCOMPLETE;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (position < limit)
+            return true;
+        if (finished)
+            return false;
+        throw INCOMPLETE;
+    }
+
+    @Override
+    public int read() {
+        require(1);
+        return chars[position++];
+    }
+
+    @Override
+    public String read(int nchars) {
+        require(nchars);
+        position += nchars;
+        return new String(chars, position - nchars, nchars);
+    }
+
+    @Override
+    public int peek() {
+        require(1);
+        return chars[position];
+    }
+
+    @Override
+    public String peek(int length) {
+        if (limit - position < length && !finished)
+            throw INCOMPLETE;
+        return new String(chars, position, Math.min(length, limit - position));
+    }
+
+    @Override
+    public String peekWhile(IntPredicate p) {
+        int i = position;
+        while (i < limit && p.test(chars[i]))
+            i++;
+        if (i == limit && !finished)
+            throw INCOMPLETE;
+        return new String(chars, position, i - position);
+    }
+
+    /**
+     * Returns what is buffered of the current line, for error messages.
+     */
+    @Override
+    public String readLine() {
+        int i = position;
+        while (i < limit && chars[i] != '\n')
+            i++;
+        final String line = new String(chars, position, i - position);
+        position = i;
+        return line;
+    }
+
+    @Override
+    public long index() {
+        return offset + position;
+    }
+
+    /**
+     * Move within the text still buffered.
+     */
+    @Override
+    public TextInput index(long index) {
+        if (index < offset || index > offset + limit)
+            throw new IllegalArgumentException("Index " + index + " is no longer buffered.");
+        position = (int) (index - offset);
+        return this;
+    }
+
+    @Override
+    public void close() {
+        chars = new char[0];
+        position = limit = 0;
+        finished = true;
+    }
+
+    @Override
+    public String toString() {
+        return "..." + new String(chars, position, Math.min(64, limit - position));
+    }
+
+}
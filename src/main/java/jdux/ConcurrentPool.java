@@ -0,0 +1,52 @@
+package jdux;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Keeps one free item per thread, with a bounded shared queue for the overflow.  Items returned once the queue
+ * is full are left for garbage collection.
+ */
+class ConcurrentPool<T> implements Pool<T> {
+
+    private final Supplier<T> supplier;
+    private final ThreadLocal<T> local = new ThreadLocal<>();
+    private final BlockingQueue<T> shared;
+    private final LongAdder reuses = new LongAdder(), allocations = new LongAdder();
+
+    ConcurrentPool(Supplier<T> supplier, int maxRetained) {
+        this.supplier = supplier;
+        this.shared = new ArrayBlockingQueue<>(Math.max(1, maxRetained));
+    }
+
+    @Override
+    public T get() {
+        T item = local.get();
+        if (item != null)
+            local.remove();
+        else
+            item = shared.poll();
+        if (item != null) {
+            reuses.increment();
+            return item;
+        }
+        allocations.increment();
+        return supplier.get();
+    }
+
+    @Override
+    public void put(T item) {
+        if (local.get() == null)
+            local.set(item);
+        else
+            shared.offer(item);
+    }
+
+    @Override
+    public CacheStats stats() {
+        return new CacheStats(reuses.sum(), allocations.sum());
+    }
+
+}
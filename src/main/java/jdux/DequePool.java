@@ -7,6 +7,7 @@ class DequePool<T> implements Pool<T> {
 
     final Deque<T> deque;
     final Supplier<T> supplier;
+    long reuses, allocations;
 
     DequePool(Deque<T> list, Supplier<T> supplier) {
         this.deque = list;
@@ -16,11 +17,21 @@ class DequePool<T> implements Pool<T> {
     @Override
     public T get() {
         final T item = deque.poll();
-        return item == null ? supplier.get() : item;
+        if (item != null) {
+            reuses++;
+            return item;
+        }
+        allocations++;
+        return supplier.get();
     }
 
     @Override
     public void put(T item) {
         deque.add(item);
     }
+
+    @Override
+    public CacheStats stats() {
+        return new CacheStats(reuses, allocations);
+    }
 }
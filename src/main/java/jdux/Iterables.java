@@ -5,6 +5,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 import static jdux.Shorthands.skip;
 
@@ -17,6 +18,27 @@ class Iterables {
         return new ListLoadingIterable<>(iterator);
     }
 
+    /**
+     * Re-reads the source for each iteration, so nothing is kept in memory.  Loading only runs the given skip
+     * once, to move a shared source past the elements.
+     */
+    public static <E> LazyLoadingIterable<E> rescanning(Supplier<Iterator<E>> rescan, Runnable skip) {
+        return new LazyLoadingIterable<>() {
+            boolean loaded = false;
+            @Override
+            public Iterator<E> iterator() {
+                return rescan.get();
+            }
+            @Override
+            public void load() {
+                if (!loaded) {
+                    loaded = true;
+                    skip.run();
+                }
+            }
+        };
+    }
+
     public static <E> Iterator<E> takeAll(Queue<E> queue) {
         return new Iterator<>() {
             @Override
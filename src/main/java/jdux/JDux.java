@@ -1,19 +1,21 @@
 package jdux;
 
+import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.Reader;
 import java.io.Writer;
+import java.nio.ByteBuffer;
 import java.nio.CharBuffer;
-import java.nio.channels.Channels;
-import java.nio.channels.SeekableByteChannel;
-import java.nio.charset.StandardCharsets;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.Collections;
-import java.util.HashSet;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
 import static java.nio.file.StandardOpenOption.READ;
-import static java.nio.file.StandardOpenOption.WRITE;
 
 public final class JDux {
 
@@ -37,6 +39,15 @@ public final class JDux {
         DEFAULT_WRITER.write(node, out);
     }
 
+    /**
+     * Write a node to given channel as UTF-8 using the default writer.  The channel is left open.
+     */
+    public static void write(JsonNode node, WritableByteChannel out) {
+        final Utf8Output utf8 = new Utf8Output(out);
+        DEFAULT_WRITER.write(node, utf8);
+        utf8.flush();
+    }
+
     /**
      * Write an object as JSON to given output using the default writer.
      */
@@ -44,6 +55,21 @@ public final class JDux {
         DEFAULT_WRITER.write(node(obj), out);
     }
 
+    /**
+     * Create a generator for writing JSON one token at a time using the default writer's settings.
+     */
+    public static JsonGenerator generator(Appendable out) {
+        return DEFAULT_WRITER.generator(out);
+    }
+
+    /**
+     * Create a generator writing UTF-8 to the given file.  Output goes to a sibling file, which replaces the file
+     * once the generator is closed after a complete document, and is deleted otherwise.
+     */
+    public static JsonGenerator generator(Path file) {
+        return DEFAULT_WRITER.generator(ReplacingOutput.open(file));
+    }
+
     /**
      * Parse with default parser.
      */
@@ -58,12 +84,138 @@ public final class JDux {
         return DEFAULT_PARSER.parse(TextInput.wrap(reader));
     }
 
+    /**
+     * Parse straight into the given type, without building nodes.
+     */
+    public static <T> T parse(String str, Class<T> type) {
+        return DEFAULT_PARSER.parse(TextInput.wrap(str), type);
+    }
+
+    /**
+     * Parse straight into the given type, without building nodes.
+     */
+    public static <T> T parse(Reader reader, Class<T> type) {
+        return DEFAULT_PARSER.parse(TextInput.wrap(reader), type);
+    }
+
+    /**
+     * Parse UTF-8 bytes straight into the given type, without building nodes.
+     */
+    public static <T> T parse(ByteBuffer bytes, Class<T> type) {
+        return DEFAULT_PARSER.parse(TextInput.wrap(bytes), type);
+    }
+
+    /**
+     * Parse UTF-8 bytes with default parser.
+     */
+    public static JsonNode parse(ByteBuffer bytes) {
+        return DEFAULT_PARSER.parse(TextInput.wrap(bytes));
+    }
+
+    /**
+     * Parse UTF-8 bytes with default parser.
+     */
+    public static JsonNode parse(ReadableByteChannel channel) {
+        return DEFAULT_PARSER.parse(TextInput.wrap(channel));
+    }
+
+    /**
+     * Parse a memory-mapped UTF-8 file with default parser.  Children are re-read from the file as they are
+     * visited rather than kept in memory.
+     */
+    public static JsonNode parse(Path file) {
+        return DEFAULT_PARSER.parse(TextInput.map(file));
+    }
+
+    /**
+     * Parse newline-delimited JSON, one node per line.
+     */
+    public static Stream<JsonNode> parseLines(Reader reader) {
+        final BufferedReader lines = new BufferedReader(reader);
+        return lines.lines()
+            .filter(line -> !line.isBlank())
+            .map(JDux::parse)
+            .onClose(() -> {
+                try {
+                    lines.close();
+                } catch (IOException e) {
+                    throw new IORuntimeException(e);
+                }
+            });
+    }
+
+    /**
+     * Parse newline-delimited UTF-8 JSON, one node per line.  The stream splits on line boundaries, so it can
+     * be parsed in parallel.
+     */
+    public static Stream<JsonNode> parseLines(ByteBuffer bytes) {
+        return StreamSupport.stream(new LineSpliterator(bytes.slice(), DEFAULT_PARSER), false);
+    }
+
+    /**
+     * Parse a memory-mapped file of newline-delimited UTF-8 JSON, one node per line.  The stream splits on line
+     * boundaries, so it can be parsed in parallel.  Files too large to map are read sequentially.
+     */
+    public static Stream<JsonNode> parseLines(Path file) {
+        try (FileChannel channel = FileChannel.open(file, READ)) {
+            if (channel.size() > Integer.MAX_VALUE)
+                return parseLines(Files.newBufferedReader(file));
+            return parseLines(channel.map(READ_ONLY, 0, channel.size()));
+        } catch (IOException e) {
+            throw new IORuntimeException(e);
+        }
+    }
+
+    /**
+     * Parse a file of newline-delimited JSON, mapping each line to the given type.
+     */
+    public static <T> Stream<T> parseLines(Path file, Class<T> type) {
+        return parseLines(file).map(node -> node.asA(type));
+    }
+
+    /**
+     * Create a pull parser for reading the given JSON one token at a time.
+     */
+    public static JsonReader reader(String str) {
+        return new JsonReader(TextInput.wrap(str));
+    }
+
+    /**
+     * Create a pull parser for reading the given JSON one token at a time.
+     */
+    public static JsonReader reader(Reader reader) {
+        return new JsonReader(TextInput.wrap(reader));
+    }
+
+    /**
+     * Create a pull parser over a memory-mapped UTF-8 file.
+     */
+    public static JsonReader reader(Path file) {
+        return new JsonReader(TextInput.map(file));
+    }
+
+    /**
+     * Create a non-blocking pull parser, for input that is fed in chunks as it arrives.
+     */
+    public static JsonFeedReader feedReader() {
+        return new JsonFeedReader(new ChunkedTextInput(), symbols());
+    }
+
     /**
      * Create in-memory JSON database.
      * @param size number of bytes to allocate
      */
     public static JsonDB memDB(int size) {
-        return new StreamingJsonDB(new ReadWriteBuffers(size));
+        return memDB(size, false);
+    }
+
+    /**
+     * Create in-memory JSON database.
+     * @param size      number of bytes to allocate
+     * @param cacheRoot keep the parsed root in memory between writes
+     */
+    public static JsonDB memDB(int size, boolean cacheRoot) {
+        return new StreamingJsonDB(new ReadWriteBuffers(size)).cacheRoot(cacheRoot);
     }
 
     /**
@@ -71,7 +223,38 @@ public final class JDux {
      * @param path path to your chosen JSON file
      */
     public static JsonDB fileDB(Path path) {
-        return new StreamingJsonDB(new FileChannels(path));
+        return fileDB(path, false);
+    }
+
+    /**
+     * Create a file JSON database.
+     * @param path      path to your chosen JSON file
+     * @param cacheRoot keep the parsed root in memory between writes
+     */
+    public static JsonDB fileDB(Path path, boolean cacheRoot) {
+        return new StreamingJsonDB(new FileChannels(path)).cacheRoot(cacheRoot);
+    }
+
+    /**
+     * Object keys interned by the default parser, for monitoring its size and hit rate.
+     */
+    public static SymbolTable symbols() {
+        return DEFAULT_PARSER.symbols();
+    }
+
+    /**
+     * Lookups of cached record constructors and accessors, used when mapping records to and from JSON.
+     */
+    public static CacheStats recordStats() {
+        return RecordMetadata.stats();
+    }
+
+    /**
+     * Use the given codec whenever the type is read from or written to JSON.  UUIDs, enums and time types are
+     * handled by default; registering a codec for one of them replaces the default.
+     */
+    public static <T> void register(Class<T> type, TypeCodec<T> codec) {
+        TypeCodecs.register(type, codec);
     }
 
     public static void setPretty() {
@@ -96,36 +279,36 @@ public final class JDux {
 
     }
 
-    private static class FileChannels implements StreamingJsonDB.StreamOptions<Writer> {
+    /**
+     * Reads by memory-mapping the file, writes to a sibling file which then replaces it.  Replacing rather than
+     * overwriting keeps earlier mappings valid, so nodes parsed before a write can still be read afterwards.
+     */
+    private static class FileChannels implements StreamingJsonDB.StreamOptions<ReplacingOutput> {
 
-        private final SeekableByteChannel read, write;
+        private final Path file;
 
         public FileChannels(Path file) {
-            try {
-                this.read = Files.newByteChannel(file, new HashSet<>(Collections.singleton(READ)));
-                this.write = Files.newByteChannel(file, new HashSet<>(Collections.singleton(WRITE)));
-            } catch (IOException e) {
-                throw new IORuntimeException(e);
-            }
+            this.file = file.toAbsolutePath();
         }
 
         @Override
         public TextInput input() {
-            return TextInput.wrap(Channels.newReader(read, StandardCharsets.US_ASCII));
+            return TextInput.map(file);
+        }
+
+        @Override
+        public ReplacingOutput output() {
+            return ReplacingOutput.open(file);
         }
 
         @Override
-        public Writer output() {
-            return Channels.newWriter(write, StandardCharsets.US_ASCII);
+        public void after(ReplacingOutput output) {
+            output.close();
         }
 
         @Override
-        public void after(Writer output) {
-            try {
-                output.flush();
-            } catch (IOException e) {
-                throw new IORuntimeException(e);
-            }
+        public void failed(ReplacingOutput output) {
+            output.discard();
         }
     }
     private static class ReadWriteBuffers implements StreamingJsonDB.StreamOptions<CharBuffer> {
@@ -0,0 +1,15 @@
+package jdux;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a record for compile-time codec generation.  With the jdux-codegen annotation processor on the compile
+ * path, a RecordCodec is generated for the record and picked up automatically when mapping it to and from JSON.
+ */
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.TYPE)
+public @interface JsonCodec {
+}
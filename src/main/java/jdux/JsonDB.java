@@ -63,4 +63,10 @@ public interface JsonDB {
      */
     JsonDB root(JsonNode newRoot);
 
+    /**
+     * Hits and misses against the in-memory root, when root caching is enabled.
+     * @return the counts so far; always zero when caching is disabled
+     */
+    CacheStats cacheStats();
+
 }
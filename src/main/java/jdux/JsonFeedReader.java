@@ -0,0 +1,117 @@
+package jdux;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+import static jdux.JsonToken.NOT_AVAILABLE;
+
+/**
+ * Non-blocking pull parser for input that arrives in chunks, such as reads from an NIO channel.  Rather than
+ * waiting for more input, next() returns NOT_AVAILABLE until the next token has been fed in full, so one thread
+ * can keep many documents in progress at once.
+ *
+ * Call endOfInput() after the last chunk, so that trailing values can be completed.
+ */
+public final class JsonFeedReader extends JsonReader {
+
+    private final ChunkedTextInput input;
+    private final Deque<List<JsonNode>> open = new ArrayDeque<>();
+
+    JsonFeedReader(ChunkedTextInput input, SymbolTable symbols) {
+        super(input, symbols);
+        this.input = input;
+    }
+
+    /**
+     * Append UTF-8 encoded input.  The buffer is read in full.
+     */
+    public JsonFeedReader feed(ByteBuffer bytes) {
+        requireOpen();
+        input.feed(bytes);
+        return this;
+    }
+
+    /**
+     * Append text input.  The buffer is read in full.
+     */
+    public JsonFeedReader feed(CharBuffer chars) {
+        requireOpen();
+        input.feed(chars);
+        return this;
+    }
+
+    public JsonFeedReader feed(String str) {
+        requireOpen();
+        input.feed(str);
+        return this;
+    }
+
+    /**
+     * Signal that all input has been fed.
+     */
+    public JsonFeedReader endOfInput() {
+        input.finish();
+        return this;
+    }
+
+    /**
+     * Whether next() needs more input before it can return another token.
+     */
+    public boolean needsInput() {
+        return current() == NOT_AVAILABLE;
+    }
+
+    /**
+     * Read the next top-level value in full, building it from tokens as they arrive so that its text is only
+     * read once.  Don't mix with calls to next() while a value is partly read.
+     * @return the value, or null if more input is needed or all input has been read
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public JsonNode nextNode() {
+        while (true) {
+            final JsonToken token = next();
+            final JsonNode node;
+            switch (token) {
+                case NOT_AVAILABLE, END_DOCUMENT:
+                    return null;
+                case NAME:
+                    continue;
+                case START_OBJECT, START_ARRAY:
+                    open.push(new ArrayList<>());
+                    continue;
+                case END_OBJECT:
+                    node = new NodeReflection.FieldsNode((List) open.pop());
+                    break;
+                case END_ARRAY:
+                    node = new NodeReflection.ListNode(open.pop());
+                    break;
+                default:
+                    node = scalar(token);
+            }
+            if (open.isEmpty())
+                return node;
+            final String name = currentName();
+            open.peek().add(name == null ? node : new LabelledNodeDecorator(name, node));
+        }
+    }
+
+    private JsonNode scalar(JsonToken token) {
+        return switch (token) {
+            case STRING -> new JsonNode.StringNode(getString());
+            case NUMBER -> numberNode();
+            case TRUE -> JsonNode.BooleanNode.TRUE;
+            case FALSE -> JsonNode.BooleanNode.FALSE;
+            default -> JsonNode.NullNode.INSTANCE;
+        };
+    }
+
+    private void requireOpen() {
+        if (input.isFinished())
+            throw new IllegalStateException("Input has already ended.");
+    }
+
+}
@@ -0,0 +1,257 @@
+package jdux;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes JSON one token at a time, without building nodes.  Memory use is bounded by the nesting depth, so it
+ * suits exporting documents of any size.  Formatting follows the JsonWriter it was created from.
+ *
+ * Inside objects, each value is preceded by a call to name(String).  A null reference given to any of the value
+ * methods writes null, but a literal {@code value(null)} is ambiguous between them and won't compile; use
+ * nullValue() instead.
+ */
+public class JsonGenerator implements AutoCloseable {
+
+    private final JsonWriter writer;
+    private final Appendable out;
+
+    private boolean[] objects = new boolean[16];
+    private int[] counts = new int[16];
+    private int depth;
+    private boolean named, done;
+
+    public JsonGenerator(Appendable out) {
+        this(new JsonWriter(), out);
+    }
+
+    JsonGenerator(JsonWriter writer, Appendable out) {
+        this.writer = writer;
+        this.out = out;
+    }
+
+    public JsonGenerator startObject() {
+        return open(true, '{');
+    }
+
+    public JsonGenerator endObject() {
+        return close(true, '}');
+    }
+
+    public JsonGenerator startArray() {
+        return open(false, '[');
+    }
+
+    public JsonGenerator endArray() {
+        return close(false, ']');
+    }
+
+    /**
+     * Write the name of the next value in the current object.
+     */
+    public JsonGenerator name(String name) {
+        if (depth == 0 || !objects[depth - 1] || named)
+            throw new IllegalStateException("Unexpected name \"" + name + "\" outside of object");
+        try {
+            element();
+            JsonStrings.appendQuoted(name, out);
+            out.append(':');
+            if (writer.isPretty())
+                out.append(' ');
+        } catch (IOException e) {
+            throw new IORuntimeException(e);
+        }
+        named = true;
+        return this;
+    }
+
+    public JsonGenerator value(String value) {
+        if (value == null)
+            return nullValue();
+        try {
+            beforeValue();
+            JsonStrings.appendQuoted(value, out);
+        } catch (IOException e) {
+            throw new IORuntimeException(e);
+        }
+        return this;
+    }
+
+    public JsonGenerator value(long value) {
+        try {
+            beforeValue();
+            JsonWriter.appendLong(value, out);
+        } catch (IOException e) {
+            throw new IORuntimeException(e);
+        }
+        return this;
+    }
+
+    /**
+     * Write a number.  JSON has no NaN or infinity, so those are rejected.
+     */
+    public JsonGenerator value(double value) {
+        JsonNode.NumberNode.finite(value);
+        try {
+            beforeValue();
+            JsonWriter.appendDouble(value, out);
+        } catch (IOException e) {
+            throw new IORuntimeException(e);
+        }
+        return this;
+    }
+
+    public JsonGenerator value(boolean value) {
+        return literal(value ? "true" : "false");
+    }
+
+    public JsonGenerator nullValue() {
+        return literal("null");
+    }
+
+    /**
+     * Write a node, formatted to fit the current depth.
+     */
+    public JsonGenerator value(JsonNode node) {
+        if (node == null)
+            return nullValue();
+        beforeValue();
+        writer.write(depth, node, out);
+        return this;
+    }
+
+    /**
+     * Write any object supported by reflection, such as a record.
+     */
+    public JsonGenerator value(Object value) {
+        return value(JDux.node(value));
+    }
+
+    /**
+     * Write an array holding the given values, mapping each in turn so that only one is held at a time.
+     */
+    public JsonGenerator array(Iterator<?> values) {
+        startArray();
+        while (values.hasNext())
+            value(values.next());
+        return endArray();
+    }
+
+    /**
+     * Write an array holding the given values, consuming the stream in order.
+     */
+    public JsonGenerator array(Stream<?> values) {
+        try (values) {
+            return array(values.iterator());
+        }
+    }
+
+    /**
+     * Flush the output, if it supports flushing.
+     */
+    public JsonGenerator flush() {
+        try {
+            if (out instanceof Utf8Output utf8)
+                utf8.flush();
+            else if (out instanceof Flushable flushable)
+                flushable.flush();
+        } catch (IOException e) {
+            throw new IORuntimeException(e);
+        }
+        return this;
+    }
+
+    /**
+     * Flush and close the output, if it can be closed.  A file output is only kept if the document is complete.
+     */
+    @Override
+    public void close() {
+        if (out instanceof ReplacingOutput file && (!done || depth > 0)) {
+            file.discard();
+            return;
+        }
+        flush();
+        try {
+            if (out instanceof Closeable closeable)
+                closeable.close();
+        } catch (IOException e) {
+            throw new IORuntimeException(e);
+        }
+    }
+
+    private JsonGenerator literal(String text) {
+        try {
+            beforeValue();
+            out.append(text);
+        } catch (IOException e) {
+            throw new IORuntimeException(e);
+        }
+        return this;
+    }
+
+    private JsonGenerator open(boolean object, char open) {
+        beforeValue();
+        if (depth == objects.length) {
+            objects = Arrays.copyOf(objects, depth * 2);
+            counts = Arrays.copyOf(counts, depth * 2);
+        }
+        objects[depth] = object;
+        counts[depth++] = 0;
+        return literal(open);
+    }
+
+    private JsonGenerator close(boolean object, char close) {
+        if (depth == 0 || objects[depth - 1] != object || named)
+            throw new IllegalStateException("Unexpected " + close);
+        try {
+            if (counts[--depth] > 0)
+                writer.spacing(depth, out);
+            out.append(close);
+        } catch (IOException e) {
+            throw new IORuntimeException(e);
+        }
+        done = depth == 0;
+        return this;
+    }
+
+    private JsonGenerator literal(char c) {
+        try {
+            out.append(c);
+        } catch (IOException e) {
+            throw new IORuntimeException(e);
+        }
+        return this;
+    }
+
+    /**
+     * Check a value is allowed here, and write the separator before it when in an array.
+     */
+    private void beforeValue() {
+        if (depth == 0) {
+            if (done)
+                throw new IllegalStateException("Document already complete");
+            done = true;
+        } else if (objects[depth - 1]) {
+            if (!named)
+                throw new IllegalStateException("Expected name before value in object");
+            named = false;
+        } else {
+            try {
+                element();
+            } catch (IOException e) {
+                throw new IORuntimeException(e);
+            }
+        }
+    }
+
+    private void element() throws IOException {
+        if (counts[depth - 1]++ > 0)
+            out.append(',');
+        writer.spacing(depth, out);
+    }
+
+}
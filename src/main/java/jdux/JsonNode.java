@@ -1,9 +1,9 @@
 package jdux;
 
+import java.io.IOException;
 import java.lang.reflect.Type;
-import java.time.Instant;
-import java.time.ZoneId;
-import java.time.ZonedDateTime;
+import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.time.temporal.TemporalAccessor;
 import java.util.Iterator;
 import java.util.stream.Stream;
@@ -68,17 +68,21 @@ public interface JsonNode {
         ValueNode(T value) {
             this.value = value;
         }
+        public T value() {
+            return value;
+        }
         @Override
         public <E> E asA(Class<E> recordType) {
-            if (recordType.isInstance(value))
-                return recordType.cast(value);
-            return (E) value; // TODO
+            if (Primitives.wrap(recordType).isInstance(value()))
+                return (E) value();
+            final TypeCodec<E> codec = TypeCodecs.registered(recordType);
+            if (codec != null)
+                return codec.decode(this);
+            throw new JsonReflectException("Cannot convert " + value() + " to " + recordType.getName());
         }
         @Override
         public Object asA(Type type) {
-            if (type instanceof Class<?> c)
-                return asA(c);
-            return value; // TODO
+            return asA(TypeCodecs.rawClass(type));
         }
 
         @Override
@@ -93,38 +97,252 @@ public interface JsonNode {
 
         @Override
         public String toString() {
-            return String.valueOf(value);
+            return String.valueOf(value());
         }
     }
+    /**
+     * String value.  When parsed, keeps the source text with its escape sequences intact and only decodes it
+     * when the value is asked for.
+     */
     @SuppressWarnings({"unchecked", "rawtypes"})
     class StringNode extends ValueNode<String> {
+        private final CharSequence raw;
+        private final boolean escaped;
         StringNode(String value) {
             super(value);
+            this.raw = null;
+            this.escaped = false;
+        }
+        StringNode(CharSequence raw, boolean escaped) {
+            super(null);
+            this.raw = raw;
+            this.escaped = escaped;
+        }
+        @Override
+        public String value() {
+            if (value == null)
+                value = escaped ? JsonStrings.unescape(raw) : raw.toString();
+            return value;
+        }
+        /**
+         * Source text for the string, escaped and without quotes, or null if not parsed.
+         */
+        CharSequence raw() {
+            return raw;
+        }
+        boolean isEscaped() {
+            return escaped;
         }
         @Override
         public <E> E asA(Class<E> type) {
-            if (TemporalAccessor.class.isAssignableFrom(type))
-                return (E) asTime((Class) type);
-            if (type.isEnum())
-                return (E) Enum.valueOf((Class) type, value);
-            if (type != String.class)
-                throw new UnsupportedOperationException("Cannot parse string value");
-            return (E) value; // TODO
+            if (type == String.class || type == Object.class || type == CharSequence.class)
+                return (E) value();
+            final TypeCodec<E> codec = TypeCodecs.get(type);
+            if (codec == null)
+                throw new JsonReflectException("Cannot convert string to " + type.getName());
+            return codec.decode(this);
         }
         @Override
         public String toString() {
-            return '"' + value + '"'; // TODO UTF escaping
+            if (raw != null)
+                return '"' + raw.toString() + '"';
+            return JsonStrings.quote(value);
         }
         public <T extends TemporalAccessor> T asTime(Class<T> type) {
-            try {
-                ZonedDateTime ta = Instant.parse(value).atZone(ZoneId.systemDefault());
-                return (T) type.getMethod("from", TemporalAccessor.class).invoke(null, ta);
-            } catch (ReflectiveOperationException e) {
-                throw new JsonReflectException(e);
+            final TypeCodec<T> codec = TypeCodecs.get(type);
+            if (codec == null)
+                throw new JsonReflectException("No from(TemporalAccessor) method on " + type.getName());
+            return codec.decode(this);
+        }
+    }
+    /**
+     * Number value, held unboxed.  Integers that fit in a long and doubles from reflection are held as such, and
+     * anything else is kept as the original text until a conversion asks for it.
+     */
+    @SuppressWarnings("unchecked")
+    class NumberNode implements JsonNode {
+        private final long integral;
+        private final double real;
+        private final boolean isReal, isFloat;
+        private final String raw;
+        private Number value;
+        NumberNode(long integral) {
+            this.integral = integral;
+            this.real = 0.0;
+            this.isReal = false;
+            this.isFloat = false;
+            this.raw = null;
+        }
+        NumberNode(double real) {
+            this.integral = 0L;
+            this.real = finite(real);
+            this.isReal = true;
+            this.isFloat = false;
+            this.raw = null;
+        }
+        /**
+         * Float value, kept as a float so that it's written with the fewest digits that identify it.
+         */
+        NumberNode(float real) {
+            this.integral = 0L;
+            this.real = finite(real);
+            this.isReal = true;
+            this.isFloat = true;
+            this.raw = null;
+        }
+        NumberNode(String raw) {
+            this.integral = 0L;
+            this.real = 0.0;
+            this.isReal = false;
+            this.isFloat = false;
+            this.raw = raw;
+        }
+        /**
+         * JSON has no NaN or infinity, so those are rejected.
+         */
+        static double finite(double value) {
+            if (!Double.isFinite(value))
+                throw new IllegalArgumentException("Cannot write " + value + " as JSON");
+            return value;
+        }
+        public boolean isIntegral() {
+            return raw == null ? !isReal : !(numberValue() instanceof Double);
+        }
+        public int intValue() {
+            return (int) exact(Integer.MIN_VALUE, Integer.MAX_VALUE, "int");
+        }
+        public long longValue() {
+            if (raw == null)
+                return isReal ? (long) real : integral;
+            final Number value = numberValue();
+            if (value instanceof BigInteger)
+                throw new JsonReflectException("Number " + raw + " is out of range for long");
+            return value.longValue();
+        }
+        /**
+         * Integral value, checked to be within the range of a narrower type.
+         */
+        private long exact(long min, long max, String type) {
+            final long value = longValue();
+            if (value < min || value > max)
+                throw new JsonReflectException("Number " + this + " is out of range for " + type);
+            return value;
+        }
+        public double doubleValue() {
+            if (raw == null)
+                return isReal ? real : integral;
+            return numberValue().doubleValue();
+        }
+        public Number numberValue() {
+            if (value == null)
+                value = raw != null ? decode(raw) : isFloat ? (Number) (float) real : isReal ? (Number) real
+                    : narrow(integral);
+            return value;
+        }
+        private static Number narrow(long integral) {
+            return integral == (int) integral ? (Number) (int) integral : (Number) integral;
+        }
+        private static Number decode(String raw) {
+            for (int i = 0; i < raw.length(); i++) {
+                final char c = raw.charAt(i);
+                if (c == '.' || c == 'e' || c == 'E')
+                    return Double.parseDouble(raw);
             }
+            final BigInteger big = new BigInteger(raw);
+            return big.bitLength() < Long.SIZE ? narrow(big.longValue()) : big;
+        }
+        @Override
+        public <E> E asA(Class<E> type) {
+            final Object converted;
+            if (type == int.class || type == Integer.class)
+                converted = intValue();
+            else if (type == long.class || type == Long.class)
+                converted = longValue();
+            else if (type == double.class || type == Double.class)
+                converted = doubleValue();
+            else if (type == float.class || type == Float.class)
+                converted = (float) doubleValue();
+            else if (type == short.class || type == Short.class)
+                converted = (short) exact(Short.MIN_VALUE, Short.MAX_VALUE, "short");
+            else if (type == byte.class || type == Byte.class)
+                converted = (byte) exact(Byte.MIN_VALUE, Byte.MAX_VALUE, "byte");
+            else if (type == BigInteger.class)
+                converted = bigDecimalValue().toBigIntegerExact();
+            else if (type == BigDecimal.class)
+                converted = bigDecimalValue();
+            else if (type == String.class)
+                converted = toString();
+            else if (type.isInstance(numberValue()))
+                converted = numberValue();
+            else
+                return decode(type);
+            return (E) converted;
+        }
+        private <E> E decode(Class<E> type) {
+            final TypeCodec<E> codec = TypeCodecs.registered(type);
+            if (codec == null)
+                throw new JsonReflectException("Cannot convert number to " + type.getName());
+            return codec.decode(this);
+        }
+        private BigDecimal bigDecimalValue() {
+            if (raw != null)
+                return new BigDecimal(raw);
+            return isReal ? BigDecimal.valueOf(real) : BigDecimal.valueOf(integral);
+        }
+        @Override
+        public Object asA(Type type) {
+            return asA(TypeCodecs.rawClass(type));
+        }
+        @Override
+        public boolean isLeaf() {
+            return true;
+        }
+        @Override
+        public Stream<? extends JsonNode> children() {
+            return Stream.empty();
+        }
+        /**
+         * Write the number without going through an intermediate String where the output allows.
+         */
+        void appendTo(Appendable out) throws IOException {
+            if (raw != null)
+                out.append(raw);
+            else if (isFloat)
+                JsonWriter.appendFloat((float) real, out);
+            else if (isReal)
+                JsonWriter.appendDouble(real, out);
+            else
+                JsonWriter.appendLong(integral, out);
+        }
+        @Override
+        public String toString() {
+            if (raw != null)
+                return raw;
+            if (isFloat)
+                return Float.toString((float) real);
+            return isReal ? Double.toString(real) : Long.toString(integral);
+        }
+    }
+    /**
+     * Boolean value.  Only the two shared instances exist.
+     */
+    final class BooleanNode extends ValueNode<Boolean> {
+        public static final BooleanNode TRUE = new BooleanNode(true), FALSE = new BooleanNode(false);
+        private BooleanNode(boolean value) {
+            super(value);
+        }
+        public static BooleanNode of(boolean value) {
+            return value ? TRUE : FALSE;
+        }
+        public boolean booleanValue() {
+            return this == TRUE;
         }
     }
     class NullNode implements JsonNode {
+        /**
+         * Shared instance; null nodes hold no state.
+         */
+        public static final NullNode INSTANCE = new NullNode();
         @Override
         public boolean isLeaf() {
             return true;
@@ -21,6 +21,8 @@ public class JsonParseException extends RuntimeException {
     }
     @Override
     public String getMessage() {
+        if (text == null)
+            return super.getMessage();
         return (super.getMessage() == null ? "" : super.getMessage()) + " at index "+text.index()+", \"..." + text.readLine() + "\"";
     }
 
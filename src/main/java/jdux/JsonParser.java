@@ -1,49 +1,74 @@
 package jdux;
 
-import java.math.BigInteger;
+import java.lang.reflect.Type;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
-import static java.lang.Character.isDigit;
 import static java.lang.Character.isLetter;
 import static java.util.stream.Collectors.joining;
 import static jdux.Iterables.loading;
 import static jdux.Iterables.recalling;
+import static jdux.Iterables.rescanning;
 import static jdux.Shorthands.then;
 
 class JsonParser {
 
-    static final JsonNode.NullNode NULL_NODE = new JsonNode.NullNode();
+    private static final ThreadLocal<NumberScanner> NUMBERS = ThreadLocal.withInitial(NumberScanner::new);
 
-    private static final int
-        MAX_INT_DIGITS = String.valueOf(Integer.MAX_VALUE).length(),
-        MAX_LONG_DIGITS = String.valueOf(Long.MAX_VALUE).length();
-
-    private boolean recall;
+    private final SymbolTable symbols;
+    private final boolean recall, rescan;
 
     public JsonParser() {
         this(true);
     }
 
     public JsonParser(boolean recall) {
+        this(new SymbolTable(), recall, true);
+    }
+
+    private JsonParser(SymbolTable symbols, boolean recall, boolean rescan) {
+        this.symbols = symbols;
         this.recall = recall;
+        this.rescan = rescan;
     }
 
+    /**
+     * Parser with the given recall mode, sharing this one's symbols.  Parsers don't change once created, so
+     * different modes can be used at the same time.
+     */
     public JsonParser recall(boolean recall) {
-        this.recall = recall;
-        return this;
+        return recall == this.recall ? this : new JsonParser(symbols, recall, rescan);
+    }
+
+    /**
+     * When the input is navigable, lazy nodes re-read their children from the source on each iteration
+     * rather than keeping them in memory.  Enabled by default.
+     * @return parser with the given rescan mode, sharing this one's symbols
+     */
+    public JsonParser rescan(boolean rescan) {
+        return rescan == this.rescan ? this : new JsonParser(symbols, recall, rescan);
     }
 
     public JsonNode parse(TextInput text) {
         try {
             if (!text.hasNext())
-                return new JsonNode.NullNode();
+                return JsonNode.NullNode.INSTANCE;
             final int next = text.skipWhitespace().peek();
             return switch (next) {
                 case '"', '\'' -> stringNode(text, (char) next);
                 case '0', '1', '2', '3', '4', '5', '6', '7', '8', '9', '-' -> numberNode(text);
                 case 'f', 't' -> booleanNode(text.read(next == 'f' ? 5 : 4));
-                case 'n' -> new JsonNode.NullNode();
+                case 'n' -> nullNode(text.read(4));
                 case '[' -> new LazyLoadArrayNode(text);
                 case '{' -> new LazyLoadObjectNode(text);
                 default -> throw new JsonParseException("Expected json node/value, but was character " + ((char) next), text);
@@ -55,66 +80,121 @@ class JsonParser {
         }
     }
 
-    private JsonNode stringNode(TextInput text, char quote) {
-        text.skip(quote);
-        final StringBuilder sb = new StringBuilder();
-        while (text.hasNext() && text.peek() != quote) {
-            int c = text.read();
-            if (c == '\\' && text.hasNext()) {
-                c = text.read();
-                switch (c) {
-                    case '"', '\'', '\\', '/' -> sb.append((char) c);
-                    case 'b' -> sb.deleteCharAt(sb.length() - 1);
-                    case 'f' -> sb.append('\f');
-                    case 'n' -> sb.append('\n');
-                    case 'r' -> sb.append('\r');
-                    case 't' -> sb.append('\t');
-                    case 'u' -> sb.appendCodePoint(Integer.parseInt(text.read(4), 16));
-                    default -> sb.append('\\').append((char) c);
-                }
-            } else {
-                sb.append((char) c);
-            }
+    /**
+     * Read the next value straight into the given type, without building nodes.  Objects map to records through
+     * their canonical constructor, and fields that the record does not declare are skipped.
+     */
+    public Object parse(TextInput text, Type type) {
+        return new JsonReader(text, symbols).readValue(type);
+    }
+
+    public <T> T parse(TextInput text, Class<T> type) {
+        return new JsonReader(text, symbols).readValue(type);
+    }
+
+    /**
+     * Canonical object keys shared by everything this parser reads.
+     */
+    public SymbolTable symbols() {
+        return symbols;
+    }
+
+    /**
+     * Parse only as much of the input as is needed to find the nodes matching the selector.  Values whose labels
+     * cannot lead to a match are skipped without creating nodes, and the stream ends early if not fully consumed.
+     * @return labelled nodes matching the selector, in document order
+     */
+    public Stream<JsonNode> select(TextInput text, JsonSelector selector) {
+        return Streams.toStream(new SelectingIterator(text, List.of(selector)));
+    }
+
+    /**
+     * Parse the next value fully into memory, so that the input can move on without invalidating it.
+     */
+    private JsonNode materialize(TextInput text) {
+        final JsonNode node = recall(true).parse(text);
+        if (node instanceof LazyLoading lazyLoading)
+            lazyLoading.load();
+        return node;
+    }
+
+    private String readLabel(TextInput text) {
+        final int peek = text.skipWhitespace().peek();
+        if (peek == '\'' || peek == '"') {
+            final String label = symbols.read(text.skip(), c -> c != peek && c != '\\');
+            if (text.peek() != '\\')
+                return then(label, text::skip);
+            return then(label + text.readQuoted((char) peek), text::skip);
+        } else if (isLetter(peek)) {
+            return symbols.read(text, Character::isLetterOrDigit);
         }
-        text.skip(quote);
-        return new JsonNode.StringNode(sb.toString());
+        throw new JsonParseException("Expected letter or quote but was " + ((char) peek), text);
     }
 
-    private JsonNode numberNode(TextInput text) {
-        final String stringValue = text.readWhile(this::isNumeric);
-        final Number number;
-        if (stringValue.matches("-?\\d+")) {
-            if (stringValue.length() < MAX_INT_DIGITS)
-                number = Integer.parseInt(stringValue);
-            else if (stringValue.length() < MAX_LONG_DIGITS)
-                number = Long.parseLong(stringValue);
-            else
-                number = new BigInteger(stringValue);
-        } else if (stringValue.matches("-?\\d+(?:\\.\\d+)?(?:[eE][+-]?\\d+)?")) {
-            number = Double.parseDouble(stringValue);
+    private static void skipValue(TextInput text) {
+        final int peek = text.peek();
+        if (peek == '{' || peek == '[') {
+            text.skipStructure();
+        } else if (peek == '"' || peek == '\'') {
+            text.skip();
+            while (text.hasNext() && text.peek() != peek) {
+                if (text.read() == '\\')
+                    text.skip();
+            }
+            text.skip();
         } else {
-            throw new JsonParseException("Expected number value but was \"" + stringValue + "\".");
+            text.skipWhile(c -> c != ',' && c != '}' && c != ']' && !Character.isWhitespace(c));
         }
-        return new JsonNode.ValueNode<>(number);
     }
 
-    boolean isNumeric(int ch) {
-        return isDigit(ch) || ch == 'e' || ch == 'E' || ch == '.' || ch == '-' || ch == '+';
+    /**
+     * Double-quoted strings keep their source text for decoding on demand.  Single-quoted ones are decoded
+     * right away, since their text can't be written back into double quotes as-is.
+     */
+    private JsonNode stringNode(TextInput text, char quote) {
+        text.skip(quote);
+        if (quote != '"')
+            return new JsonNode.StringNode(then(text.readQuoted(quote), () -> text.skip(quote)));
+        final CharSequence raw = text.readRaw(quote);
+        text.skip(quote);
+        return new JsonNode.StringNode(raw, JsonStrings.hasEscapes(raw));
+    }
+
+    private JsonNode numberNode(TextInput text) {
+        return NUMBERS.get().scan(text).toNode();
     }
 
     private JsonNode booleanNode(String stringValue) {
         if (stringValue.equals("true"))
-            return new JsonNode.ValueNode<>(true);
+            return JsonNode.BooleanNode.TRUE;
         else if (stringValue.equals("false"))
-            return new JsonNode.ValueNode<>(false);
+            return JsonNode.BooleanNode.FALSE;
         throw new JsonParseException("Expected boolean value but was \"" + stringValue + "\".");
     }
 
-    private abstract class LazyLoadNode<N extends JsonNode> implements JsonNode, LazyLoading {
-        LazyLoadingIterable<N> children;
+    private JsonNode nullNode(String stringValue) {
+        if (stringValue.equals("null"))
+            return JsonNode.NullNode.INSTANCE;
+        throw new JsonParseException("Expected null value but was \"" + stringValue + "\".");
+    }
 
-        LazyLoadNode(JsonChildNodeTextIterator<N> unread) {
-            this.children = recall ? recalling(unread) : loading(unread);
+    private abstract class LazyLoadNode<N extends JsonNode> implements JsonNode, LazyLoading, SourceSpan {
+        LazyLoadingIterable<N> children;
+        TextInput source;
+        long start, end = -1;
+
+        /**
+         * When re-scanning, the node keeps its own view of the source, so it can be read on any thread while the
+         * parse carries on past it.
+         */
+        LazyLoadNode(TextInput text, Function<TextInput, JsonChildNodeTextIterator<N>> reader) {
+            if (rescan && text.isNavigable()) {
+                this.source = text.duplicate();
+                this.start = text.index();
+                this.children = rescanning(() -> reader.apply(source.duplicate().index(start)), text::skipStructure);
+            } else {
+                this.children = recall ? recalling(reader.apply(text)) : loading(reader.apply(text));
+            }
         }
 
         @Override
@@ -131,16 +211,77 @@ class JsonParser {
         public void load() {
             children.load();
         }
+
+        @Override
+        public boolean isRetained() {
+            return source != null || recall;
+        }
+
+        @Override
+        public boolean copySource(Appendable out) {
+            if (source == null)
+                return false;
+            if (end < 0)
+                end = source.duplicate().index(start).skipStructure().index();
+            source.copyTo(start, end, out);
+            return true;
+        }
     }
 
     private class LazyLoadArrayNode extends LazyLoadNode<JsonNode> implements ArrayNode {
+
+        private volatile long[] offsets;
+
         public LazyLoadArrayNode(TextInput text) {
-            super(new ArrayNodeTextIterator(text));
+            super(text, ArrayNodeTextIterator::new);
+        }
+
+        /**
+         * Splittable when re-reading from a navigable source, so that elements can be parsed in parallel.
+         */
+        @Override
+        public Stream<JsonNode> children() {
+            if (source == null)
+                return super.children();
+            return StreamSupport.stream(new ElementSpliterator(this), false);
         }
 
         @Override
         public JsonNode get(int index) {
-            return children().skip(index).findFirst().orElse(NULL_NODE);
+            if (offsets == null)
+                return children().skip(index).findFirst().orElse(JsonNode.NullNode.INSTANCE);
+            return index < offsets.length ? element(index) : JsonNode.NullNode.INSTANCE;
+        }
+
+        /**
+         * Start of each element in the source, found without parsing the elements themselves.  Over UTF-8 input
+         * the structural index jumps past nested objects and arrays.
+         */
+        long[] offsets() {
+            if (offsets == null) {
+                final long[] indexed = source instanceof Utf8TextInput utf8 ? utf8.elementsOf(start) : null;
+                this.offsets = indexed != null ? indexed : scanOffsets();
+            }
+            return offsets;
+        }
+
+        private long[] scanOffsets() {
+            final TextInput text = source.duplicate().index(start).skip();
+            long[] offsets = new long[16];
+            int size = 0;
+            while (text.skipWhitespace().hasNext() && text.peek() != ']') {
+                if (text.peek() == ',')
+                    text.skip().skipWhitespace();
+                if (size == offsets.length)
+                    offsets = Arrays.copyOf(offsets, size * 2);
+                offsets[size++] = text.index();
+                skipValue(text);
+            }
+            return Arrays.copyOf(offsets, size);
+        }
+
+        JsonNode element(int index) {
+            return parse(source.duplicate().index(offsets()[index]));
         }
 
         @Override
@@ -151,7 +292,7 @@ class JsonParser {
 
     private class LazyLoadObjectNode extends LazyLoadNode<JsonNode.LabelledNode> implements ObjectNode {
         public LazyLoadObjectNode(TextInput text) {
-            super(new ObjectNodeTextIterator(text));
+            super(text, ObjectNodeTextIterator::new);
         }
 
         @Override
@@ -160,6 +301,68 @@ class JsonParser {
         }
     }
 
+    /**
+     * Elements of an array read from a navigable source.  Iterates sequentially until first split, at which point
+     * the element offsets are found so that each half can parse its own range.
+     */
+    private static class ElementSpliterator implements Spliterator<JsonNode> {
+
+        private final LazyLoadArrayNode array;
+        private Iterator<JsonNode> iterator;
+        private int index, end = -1;
+
+        ElementSpliterator(LazyLoadArrayNode array) {
+            this.array = array;
+        }
+
+        private ElementSpliterator(LazyLoadArrayNode array, int index, int end) {
+            this.array = array;
+            this.index = index;
+            this.end = end;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super JsonNode> action) {
+            if (end < 0) {
+                if (iterator == null)
+                    iterator = array.childrenIter();
+                if (!iterator.hasNext())
+                    return false;
+                action.accept(iterator.next());
+                return true;
+            }
+            if (index >= end)
+                return false;
+            action.accept(array.element(index++));
+            return true;
+        }
+
+        @Override
+        public Spliterator<JsonNode> trySplit() {
+            if (iterator != null)
+                return null;
+            if (end < 0)
+                end = array.offsets().length;
+            final int mid = (index + end) >>> 1;
+            if (mid <= index)
+                return null;
+            final ElementSpliterator prefix = new ElementSpliterator(array, index, mid);
+            index = mid;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return end < 0 ? Long.MAX_VALUE : end - index;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | NONNULL | IMMUTABLE | (end < 0 ? 0 : SIZED | SUBSIZED);
+        }
+
+    }
+
     /**
      * Lazily loads children from text input.
      *
@@ -216,14 +419,7 @@ class JsonParser {
         @Override
         public JsonNode.LabelledNode next() {
             skipComma();
-            final int peek = text.skipWhitespace().peek();
-            final String nodeName;
-            if (peek == '\'' || peek == '"')
-                nodeName = then(text.skip().readUntil((char) peek), text::skip);
-            else if (isLetter(peek))
-                nodeName = text.readWhile(Character::isLetterOrDigit);
-            else
-                throw new JsonParseException("Expected letter or quote but was " + ((char) peek), text);
+            final String nodeName = readLabel(text);
             text.skipWhitespace().skipIgnoreCase(':').skipWhitespace();
             JsonNode base = parse(text);
             return setPrevious(new LabelledNodeDecorator(nodeName, base));
@@ -245,4 +441,93 @@ class JsonParser {
 
     }
 
+    /**
+     * Walks the input for a select, keeping a frame per open object or array that may still contain matches.
+     */
+    private class SelectingIterator implements Iterator<JsonNode> {
+
+        private record Frame(char end, List<JsonSelector> states) {}
+
+        private final TextInput text;
+        private final Deque<Frame> frames = new ArrayDeque<>();
+        private Iterator<JsonNode> pending = Collections.emptyIterator();
+        private JsonNode next;
+
+        SelectingIterator(TextInput text, List<JsonSelector> states) {
+            this.text = text;
+            if (text.hasNext())
+                descend(states);
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null) {
+                if (pending.hasNext())
+                    next = pending.next();
+                else if (frames.isEmpty())
+                    return false;
+                else
+                    next = advance();
+            }
+            return true;
+        }
+
+        @Override
+        public JsonNode next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+            return then(next, () -> next = null);
+        }
+
+        /**
+         * Read the next child of the innermost frame.
+         * @return the child if it matched, otherwise null
+         */
+        private JsonNode advance() {
+            final Frame frame = frames.peek();
+            if (text.skipWhitespace().hasNext() && text.peek() == ',')
+                text.skip().skipWhitespace();
+            if (!text.hasNext()) {
+                frames.clear();
+                return null;
+            }
+            if (text.peek() == frame.end) {
+                text.skip();
+                frames.pop();
+                return null;
+            }
+            if (frame.end == ']') {
+                descend(Selection.elements(frame.states));
+                return null;
+            }
+            final String label = readLabel(text);
+            text.skipWhitespace().skipIgnoreCase(':').skipWhitespace();
+            final Selection.Step step = Selection.step(frame.states, label);
+            if (!step.matched()) {
+                descend(step.next());
+                return null;
+            }
+            final JsonNode value;
+            if (text.isNavigable()) {
+                value = parse(text.duplicate());
+                descend(step.next());
+            } else {
+                value = materialize(text);
+                pending = Selection.select(value, step.next()).iterator();
+            }
+            return new LabelledNodeDecorator(label, value);
+        }
+
+        private void descend(List<JsonSelector> states) {
+            final int peek = text.skipWhitespace().peek();
+            if (states.isEmpty() || (peek != '{' && peek != '[')) {
+                skipValue(text);
+            } else {
+                frames.push(new Frame(peek == '{' ? '}' : ']', states));
+                text.skip();
+            }
+        }
+
+    }
+
 }
@@ -0,0 +1,304 @@
+package jdux;
+
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+import static java.lang.Character.isLetter;
+import static jdux.JsonToken.*;
+import static jdux.NumberScanner.isDigit;
+import static jdux.Shorthands.then;
+
+/**
+ * Pull parser that reads one token at a time without building nodes.  Memory use is bounded by the nesting depth
+ * of the document, so it suits walking inputs of any size.
+ *
+ * Multiple top-level values are read one after another, with END_DOCUMENT returned once the input is exhausted.
+ */
+public class JsonReader implements AutoCloseable {
+
+    private static final byte OBJECT_FIRST = 0, OBJECT_NEXT = 1, OBJECT_VALUE = 2, ARRAY_FIRST = 3, ARRAY_NEXT = 4;
+
+    private final TextInput text;
+    private final SymbolTable symbols;
+    private final NumberScanner numbers = new NumberScanner();
+
+    private byte[] states = new byte[16];
+    private String[] names = new String[16];
+    private int depth;
+    private boolean openPending;
+
+    private JsonToken current;
+    private CharSequence string;
+    private boolean escaped;
+
+    public JsonReader(TextInput text) {
+        this(text, JDux.symbols());
+    }
+
+    JsonReader(TextInput text, SymbolTable symbols) {
+        this.text = text;
+        this.symbols = symbols;
+    }
+
+    /**
+     * Advance to the next token.
+     * @return the new current token, or NOT_AVAILABLE if input is fed in chunks and the token is not complete yet
+     */
+    public JsonToken next() {
+        final long index = text.index();
+        final int depth = this.depth;
+        final byte state = depth > 0 ? states[depth - 1] : 0;
+        final boolean openPending = this.openPending;
+        try {
+            return current = advance();
+        } catch (ChunkedTextInput.Incomplete e) {
+            text.index(index);
+            this.depth = depth;
+            this.openPending = openPending;
+            if (depth > 0)
+                states[depth - 1] = state;
+            return current = NOT_AVAILABLE;
+        }
+    }
+
+    private JsonToken advance() {
+        if (openPending) {
+            text.skip();
+            openPending = false;
+        }
+        if (!text.skipWhitespace().hasNext()) {
+            if (depth > 0)
+                throw new JsonParseException("Unexpected end of input inside " + (inObject() ? "object" : "array"), text);
+            return END_DOCUMENT;
+        }
+        if (depth == 0)
+            return value();
+        final int c = text.peek();
+        return switch (states[depth - 1]) {
+            case OBJECT_FIRST, OBJECT_NEXT -> {
+                if (c == '}')
+                    yield pop(END_OBJECT);
+                if (states[depth - 1] == OBJECT_NEXT)
+                    skipComma(c);
+                names[depth - 1] = readName();
+                states[depth - 1] = OBJECT_VALUE;
+                yield NAME;
+            }
+            case OBJECT_VALUE -> {
+                if (c != ':')
+                    throw new JsonParseException("Expected ':' but was " + (char) c, text);
+                text.skip().skipWhitespace();
+                states[depth - 1] = OBJECT_NEXT;
+                yield value();
+            }
+            default -> {
+                if (c == ']')
+                    yield pop(END_ARRAY);
+                if (states[depth - 1] == ARRAY_NEXT)
+                    skipComma(c);
+                states[depth - 1] = ARRAY_NEXT;
+                yield value();
+            }
+        };
+    }
+
+    /**
+     * When positioned on the start of an object or array, move to its end without reading what's inside.
+     * @return the new current token, or the existing one if not at the start of an object or array; NOT_AVAILABLE
+     *         if input is fed in chunks and the end has not arrived yet, in which case call again after feeding more
+     */
+    public JsonToken skipChildren() {
+        if (!openPending)
+            return current;
+        final long index = text.index();
+        try {
+            text.skipStructure();
+        } catch (ChunkedTextInput.Incomplete e) {
+            text.index(index);
+            return current = NOT_AVAILABLE;
+        }
+        return current = inObject() ? pop(END_OBJECT) : pop(END_ARRAY);
+    }
+
+    public JsonToken current() {
+        return current;
+    }
+
+    /**
+     * Number of objects and arrays currently open.
+     */
+    public int depth() {
+        return depth;
+    }
+
+    /**
+     * The field name for the current token, or null if not inside an object.  For the start or end of an
+     * object or array, this is the name it is assigned to.
+     */
+    public String currentName() {
+        final int level = openPending ? depth - 2 : depth - 1;
+        return level >= 0 && states[level] <= OBJECT_VALUE ? names[level] : null;
+    }
+
+    /**
+     * Text of the current name or value, with string escapes resolved.
+     */
+    public String getString() {
+        return switch (current) {
+            case NAME -> names[depth - 1];
+            case STRING -> escaped ? JsonStrings.unescape(string) : string.toString();
+            case NUMBER -> numbers.isRaw() ? numbers.raw() : Long.toString(numbers.integral());
+            case TRUE -> "true";
+            case FALSE -> "false";
+            case NULL -> "null";
+            default -> throw new IllegalStateException("No value for " + current);
+        };
+    }
+
+    /**
+     * Current number as an int, throwing JsonReflectException if it is out of range.
+     */
+    public int getInt() {
+        if (number().isRaw())
+            return numberNode().intValue();
+        final long value = numbers.integral();
+        if ((int) value != value)
+            throw new JsonReflectException("Number " + value + " is out of range for int");
+        return (int) value;
+    }
+
+    /**
+     * Current number as a long, throwing JsonReflectException if it is out of range.
+     */
+    public long getLong() {
+        return number().isRaw() ? numberNode().longValue() : numbers.integral();
+    }
+
+    public double getDouble() {
+        return number().isRaw() ? Double.parseDouble(numbers.raw()) : numbers.integral();
+    }
+
+    public BigDecimal getBigDecimal() {
+        return number().isRaw() ? new BigDecimal(numbers.raw()) : BigDecimal.valueOf(numbers.integral());
+    }
+
+    /**
+     * Read the next value straight into the given type, skipping ahead past it.
+     */
+    public Object readValue(Type type) {
+        return TypedReader.read(this, type);
+    }
+
+    public <T> T readValue(Class<T> type) {
+        return Primitives.wrap(type).cast(TypedReader.read(this, type));
+    }
+
+    public boolean getBoolean() {
+        if (current != TRUE && current != FALSE)
+            throw new IllegalStateException("Expected boolean but was " + current);
+        return current == TRUE;
+    }
+
+    JsonNode.NumberNode numberNode() {
+        return number().toNode();
+    }
+
+    private NumberScanner number() {
+        if (current != NUMBER)
+            throw new IllegalStateException("Expected number but was " + current);
+        return numbers;
+    }
+
+    private JsonToken value() {
+        if (!text.hasNext())
+            throw new JsonParseException("Expected json value but reached end of input", text);
+        final int c = text.peek();
+        switch (c) {
+            case '{':
+                return push(OBJECT_FIRST, START_OBJECT);
+            case '[':
+                return push(ARRAY_FIRST, START_ARRAY);
+            case '"':
+                string = text.skip().readRaw('"');
+                escaped = JsonStrings.hasEscapes(string);
+                text.skip('"');
+                return STRING;
+            case '\'':
+                string = text.skip().readQuoted('\'');
+                escaped = false;
+                text.skip('\'');
+                return STRING;
+            case 't':
+                return literal("true", TRUE);
+            case 'f':
+                return literal("false", FALSE);
+            case 'n':
+                return literal("null", NULL);
+            default:
+                if (c != '-' && !isDigit(c))
+                    throw new JsonParseException("Expected json node/value, but was character " + (char) c, text);
+                numbers.scan(text);
+                return NUMBER;
+        }
+    }
+
+    private JsonToken literal(String word, JsonToken token) {
+        final String read = text.read(word.length());
+        if (!read.equals(word))
+            throw new JsonParseException("Expected " + word + " but was \"" + read + "\".", text);
+        return token;
+    }
+
+    /**
+     * Names without escapes are interned through the symbol table; those with escapes are decoded.
+     */
+    private String readName() {
+        final int c = text.peek();
+        if (c == '"' || c == '\'') {
+            final String name = symbols.read(text.skip(), ch -> ch != c && ch != '\\');
+            if (text.peek() != '\\')
+                return then(name, () -> text.skip((char) c));
+            return then(JsonStrings.unescape(name + text.readRaw((char) c)), () -> text.skip((char) c));
+        } else if (isLetter(c)) {
+            return symbols.read(text, Character::isLetterOrDigit);
+        }
+        throw new JsonParseException("Expected letter or quote but was " + (char) c, text);
+    }
+
+    private void skipComma(int c) {
+        if (c != ',')
+            throw new JsonParseException("Expected ',' but was " + (char) c, text);
+        if (!text.skip().skipWhitespace().hasNext())
+            throw new JsonParseException("Unexpected end of input after ','", text);
+    }
+
+    private boolean inObject() {
+        return states[depth - 1] <= OBJECT_VALUE;
+    }
+
+    private JsonToken push(byte state, JsonToken token) {
+        if (depth == states.length) {
+            states = Arrays.copyOf(states, depth * 2);
+            names = Arrays.copyOf(names, depth * 2);
+        }
+        states[depth] = state;
+        names[depth++] = null;
+        openPending = true;
+        return token;
+    }
+
+    private JsonToken pop(JsonToken token) {
+        if (!openPending)
+            text.skip();
+        openPending = false;
+        depth--;
+        return token;
+    }
+
+    @Override
+    public void close() {
+        text.close();
+    }
+
+}
@@ -0,0 +1,143 @@
+package jdux;
+
+import java.io.IOException;
+
+/**
+ * Conversion between string values and their escaped JSON text.
+ */
+final class JsonStrings {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    /**
+     * Escape for each ASCII character: 0 for none, 'u' for a unicode escape, otherwise the character after the
+     * backslash.
+     */
+    private static final char[] ESCAPES = new char[128];
+
+    static {
+        for (int c = 0; c < 0x20; c++)
+            ESCAPES[c] = 'u';
+        ESCAPES['\b'] = 'b';
+        ESCAPES['\f'] = 'f';
+        ESCAPES['\n'] = 'n';
+        ESCAPES['\r'] = 'r';
+        ESCAPES['\t'] = 't';
+        ESCAPES['"'] = '"';
+        ESCAPES['\\'] = '\\';
+    }
+
+    private JsonStrings() {
+        throw new AssertionError("This is a static utility class.");
+    }
+
+    /**
+     * Whether the escaped text contains any escape sequences.
+     */
+    static boolean hasEscapes(CharSequence raw) {
+        if (raw instanceof Utf8TextInput.Span span)
+            return span.isEscaped();
+        for (int i = 0; i < raw.length(); i++) {
+            if (raw.charAt(i) == '\\')
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Resolve the escape sequences in some string text, excluding its quotes.
+     */
+    static String unescape(CharSequence raw) {
+        final String text = raw.toString();
+        int i = text.indexOf('\\');
+        if (i < 0)
+            return text;
+        final StringBuilder sb = new StringBuilder(text.length()).append(text, 0, i);
+        for (final int length = text.length(); i < length; i++) {
+            final char c = text.charAt(i);
+            if (c != '\\' || i + 1 == length) {
+                sb.append(c);
+                continue;
+            }
+            final char escaped = text.charAt(++i);
+            switch (escaped) {
+                case '"', '\'', '\\', '/' -> sb.append(escaped);
+                case 'b' -> sb.append('\b');
+                case 'f' -> sb.append('\f');
+                case 'n' -> sb.append('\n');
+                case 'r' -> sb.append('\r');
+                case 't' -> sb.append('\t');
+                case 'u' -> {
+                    sb.append(hexChar(text, i + 1));
+                    i += 4;
+                }
+                default -> sb.append('\\').append(escaped);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Character given by the four hex digits of a unicode escape, starting at the given index.
+     */
+    private static char hexChar(String text, int start) {
+        if (start + 4 > text.length())
+            throw new JsonParseException("Truncated escape \"\\u" + text.substring(start) + "\" in string");
+        int c = 0;
+        for (int i = start; i < start + 4; i++) {
+            final char digit = text.charAt(i);
+            final int value = digit >= '0' && digit <= '9' ? digit - '0'
+                : digit >= 'a' && digit <= 'f' ? digit - 'a' + 10
+                : digit >= 'A' && digit <= 'F' ? digit - 'A' + 10
+                : -1;
+            if (value < 0)
+                throw new JsonParseException("Invalid escape \"\\u" + text.substring(start, start + 4) + "\" in string");
+            c = c << 4 | value;
+        }
+        return (char) c;
+    }
+
+    /**
+     * Write a string value in double quotes, escaping where needed.
+     */
+    static void appendQuoted(CharSequence value, Appendable out) throws IOException {
+        out.append('"');
+        appendEscaped(value, out);
+        out.append('"');
+    }
+
+    static String quote(CharSequence value) {
+        final StringBuilder sb = new StringBuilder(value.length() + 2);
+        try {
+            appendQuoted(value, sb);
+        } catch (IOException e) {
+            throw new IORuntimeException(e);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Write a string value without its quotes, appending unescaped runs as they are.
+     */
+    static void appendEscaped(CharSequence value, Appendable out) throws IOException {
+        final int length = value.length();
+        int run = 0;
+        for (int i = 0; i < length; i++) {
+            final char c = value.charAt(i);
+            if (c >= ESCAPES.length || ESCAPES[c] == 0)
+                continue;
+            if (i > run)
+                out.append(value, run, i);
+            run = i + 1;
+            final char escape = ESCAPES[c];
+            out.append('\\').append(escape);
+            if (escape == 'u')
+                out.append('0').append('0').append(HEX[c >> 4]).append(HEX[c & 0xF]);
+        }
+        if (run == 0)
+            out.append(value);
+        else if (run < length)
+            out.append(value, run, length);
+    }
+
+}
@@ -0,0 +1,22 @@
+package jdux;
+
+/**
+ * Tokens produced by a JsonReader.  NOT_AVAILABLE is only returned when input is fed in chunks, and means the next
+ * token has not fully arrived yet.
+ */
+public enum JsonToken {
+    START_OBJECT, END_OBJECT, START_ARRAY, END_ARRAY, NAME, STRING, NUMBER, TRUE, FALSE, NULL, END_DOCUMENT,
+    NOT_AVAILABLE;
+
+    public boolean isStart() {
+        return this == START_OBJECT || this == START_ARRAY;
+    }
+
+    public boolean isEnd() {
+        return this == END_OBJECT || this == END_ARRAY;
+    }
+
+    public boolean isScalar() {
+        return this == STRING || this == NUMBER || this == TRUE || this == FALSE || this == NULL;
+    }
+}
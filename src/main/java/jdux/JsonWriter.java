@@ -1,11 +1,27 @@
 package jdux;
 
 import java.io.IOException;
+import java.io.Writer;
+import java.nio.CharBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 public class JsonWriter {
 
+    private static final ThreadLocal<char[]> DIGITS = ThreadLocal.withInitial(() -> new char[20]);
+    private static final ThreadLocal<StringBuilder> REAL_DIGITS = ThreadLocal.withInitial(() -> new StringBuilder(32));
+
+    private static final int CHUNK_SIZE = 1024, MAX_RETAINED_CAPACITY = 1 << 20;
+    private static final Pool<StringBuilder> CHUNKS = Pool.concurrent(StringBuilder::new, 64);
+
     private boolean pretty = false;
     private String indent = "  ";
+    private boolean parallel = false;
+    private boolean copySource = false;
 
     public JsonWriter() {}
 
@@ -24,6 +40,35 @@ public class JsonWriter {
         return this;
     }
 
+    /**
+     * Write collections of more than a thousand or so children by formatting chunks of them on the common
+     * fork-join pool.  The output is the same as when writing sequentially.
+     */
+    public JsonWriter setParallel(boolean parallel) {
+        this.parallel = parallel;
+        return this;
+    }
+
+    /**
+     * Write parsed nodes by copying their source text where possible, keeping its spacing and anything else the
+     * lenient parser accepted.  Only for rewriting a source the writer produced itself, which is valid JSON.
+     */
+    JsonWriter copySource(boolean copySource) {
+        this.copySource = copySource;
+        return this;
+    }
+
+    boolean isPretty() {
+        return pretty;
+    }
+
+    /**
+     * Create a generator that writes to the given output with these settings.
+     */
+    public JsonGenerator generator(Appendable out) {
+        return new JsonGenerator(this, out);
+    }
+
     public String toString(JsonNode node) {
         StringBuilder sb = new StringBuilder();
         write(node, sb);
@@ -34,7 +79,12 @@ public class JsonWriter {
         write(0, node, out);
     }
 
-    private void write(int depth, JsonNode node, Appendable out) {
+    /**
+     * When copying source, nodes still backed by it are copied as they are, unless pretty printing.
+     */
+    void write(int depth, JsonNode node, Appendable out) {
+        if (copySource && !pretty && node instanceof SourceSpan span && span.copySource(out))
+            return;
         if (node instanceof ArrayNode an)
             writeArray(depth, an, out);
         else if (node instanceof ObjectNode on)
@@ -55,7 +105,8 @@ public class JsonWriter {
 
     private void writeLabelled(int depth, JsonNode.LabelledNode ln, Appendable out) {
         try {
-            out.append('"').append(ln.label()).append('"').append(':');
+            JsonStrings.appendQuoted(ln.label(), out);
+            out.append(':');
             if (pretty)
                 out.append(' ');
             write(depth, ln.unlabelled(), out);
@@ -66,7 +117,23 @@ public class JsonWriter {
 
     private void writeValue(JsonNode node, Appendable out) {
         try {
-            out.append(node.toString());
+            if (node instanceof JsonNode.NumberNode nn)
+                nn.appendTo(out);
+            else if (node instanceof JsonNode.BooleanNode bn)
+                out.append(bn.booleanValue() ? "true" : "false");
+            else if (node instanceof JsonNode.NullNode)
+                out.append("null");
+            else if (copySource && node instanceof JsonNode.StringNode sn
+                    && sn.raw() instanceof Utf8TextInput.Span span && out instanceof Utf8Output utf8) {
+                utf8.append('"').write(span.bytes());
+                utf8.append('"');
+            }
+            else if (copySource && node instanceof JsonNode.StringNode sn && sn.raw() != null)
+                out.append('"').append(sn.raw()).append('"');
+            else if (node instanceof JsonNode.StringNode sn)
+                JsonStrings.appendQuoted(sn.value(), out);
+            else
+                out.append(node.toString());
         } catch (IOException e) {
             throw new IORuntimeException(e);
         }
@@ -81,9 +148,10 @@ public class JsonWriter {
                 return;
             }
             depth++;
-            spacing(depth, out).write(depth, children.next(), out);
-            while (children.hasNext())
-                spacing(depth, out.append(',')).write(depth, children.next(), out);
+            if (parallel)
+                writeChunks(depth, children, out);
+            else
+                writeChildren(depth, children, out, true);
             spacing(depth - 1, out);
             out.append(close);
         } catch (IOException e) {
@@ -91,7 +159,138 @@ public class JsonWriter {
         }
     }
 
-    private JsonWriter spacing(int depth, Appendable out) throws IOException {
+    private void writeChildren(int depth, Iterator<? extends JsonNode> children, Appendable out, boolean first)
+            throws IOException {
+        while (children.hasNext()) {
+            writeChild(depth, children.next(), out, first);
+            first = false;
+        }
+    }
+
+    private void writeChild(int depth, JsonNode child, Appendable out, boolean first) throws IOException {
+        if (!first)
+            out.append(',');
+        spacing(depth, out).write(depth, child, out);
+    }
+
+    /**
+     * Gather children into chunks and format each on the fork-join pool, appending the results in order.  Only
+     * a few chunks are in flight at once, so memory stays bounded however many children there are.
+     *
+     * Lazy children are fully loaded before leaving this thread, so that reading on from the source can't touch
+     * them.  Children that would be lost by loading, because they stream from a one-pass source, are written
+     * here instead, once everything before them is out.
+     */
+    private void writeChunks(int depth, Iterator<? extends JsonNode> children, Appendable out) throws IOException {
+        final JsonWriter sequential = new JsonWriter(pretty, indent).copySource(copySource);
+        final int maxPending = ForkJoinPool.getCommonPoolParallelism() * 2;
+        final ArrayDeque<ForkJoinTask<StringBuilder>> pending = new ArrayDeque<>();
+        List<JsonNode> chunk = new ArrayList<>(CHUNK_SIZE);
+        boolean first = true;
+        while (children.hasNext()) {
+            final JsonNode child = children.next();
+            if (child instanceof LazyLoading lazy && !lazy.isRetained()) {
+                while (!pending.isEmpty())
+                    appendChunk(pending.remove().join(), out);
+                if (!chunk.isEmpty()) {
+                    writeChildren(depth, chunk.iterator(), out, first);
+                    chunk = new ArrayList<>(CHUNK_SIZE);
+                    first = false;
+                }
+                writeChild(depth, child, out, first);
+                first = false;
+                continue;
+            }
+            if (child instanceof LazyLoading lazy)
+                lazy.load();
+            chunk.add(child);
+            if (chunk.size() == CHUNK_SIZE && children.hasNext()) {
+                pending.add(submit(sequential, depth, chunk, first));
+                if (pending.size() >= maxPending)
+                    appendChunk(pending.remove().join(), out);
+                chunk = new ArrayList<>(CHUNK_SIZE);
+                first = false;
+            }
+        }
+        if (!pending.isEmpty() && !chunk.isEmpty()) {
+            pending.add(submit(sequential, depth, chunk, first));
+            chunk = List.of();
+        }
+        while (!pending.isEmpty())
+            appendChunk(pending.remove().join(), out);
+        writeChildren(depth, chunk.iterator(), out, first);
+    }
+
+    private static ForkJoinTask<StringBuilder> submit(JsonWriter writer, int depth, List<JsonNode> nodes,
+                                                      boolean leading) {
+        return ForkJoinPool.commonPool().submit(() -> {
+            final StringBuilder sb = CHUNKS.get();
+            writer.writeChildren(depth, nodes.iterator(), sb, leading);
+            return sb;
+        });
+    }
+
+    private static void appendChunk(StringBuilder chunk, Appendable out) throws IOException {
+        out.append(chunk);
+        if (chunk.capacity() <= MAX_RETAINED_CAPACITY) {
+            chunk.setLength(0);
+            CHUNKS.put(chunk);
+        }
+    }
+
+    /**
+     * Write the digits of a long without creating a String.
+     */
+    static void appendLong(long value, Appendable out) throws IOException {
+        if (out instanceof StringBuilder sb) {
+            sb.append(value);
+            return;
+        } else if (out instanceof Utf8Output utf8) {
+            utf8.appendLong(value);
+            return;
+        }
+        final char[] digits = DIGITS.get();
+        int i = digits.length;
+        long remaining = value;
+        do {
+            digits[--i] = (char) ('0' + Math.abs(remaining % 10));
+            remaining /= 10;
+        } while (remaining != 0);
+        if (value < 0)
+            digits[--i] = '-';
+        if (out instanceof Writer writer)
+            writer.write(digits, i, digits.length - i);
+        else
+            out.append(CharBuffer.wrap(digits, i, digits.length - i));
+    }
+
+    /**
+     * Write a double as Double.toString would, formatting into a reused buffer rather than a new String.
+     */
+    static void appendDouble(double value, Appendable out) throws IOException {
+        if (out instanceof StringBuilder sb) {
+            sb.append(value);
+            return;
+        }
+        final StringBuilder digits = REAL_DIGITS.get();
+        digits.setLength(0);
+        out.append(digits.append(value));
+    }
+
+    /**
+     * Write a float as Float.toString would, formatting into a reused buffer rather than a new String.
+     */
+    static void appendFloat(float value, Appendable out) throws IOException {
+        if (out instanceof StringBuilder sb) {
+            sb.append(value);
+            return;
+        }
+        final StringBuilder digits = REAL_DIGITS.get();
+        digits.setLength(0);
+        out.append(digits.append(value));
+    }
+
+    JsonWriter spacing(int depth, Appendable out) throws IOException {
         if (pretty) {
             out.append(System.lineSeparator());
             for (int i = 0; i < depth; i++)
@@ -45,7 +45,7 @@ class LabelledNodeDecorator implements JsonNode.LabelledNode, LazyLoading {
 
     @Override
     public String toString() {
-        return "\"" + nodeName + "\":" + base.toString();
+        return JsonStrings.quote(nodeName) + ':' + base.toString();
     }
 
     @Override
@@ -54,6 +54,11 @@ class LabelledNodeDecorator implements JsonNode.LabelledNode, LazyLoading {
             lazyLoading.load();
     }
 
+    @Override
+    public boolean isRetained() {
+        return !(base instanceof LazyLoading lazyLoading) || lazyLoading.isRetained();
+    }
+
     @Override
     public boolean isLeaf() {
         return false;
@@ -2,4 +2,12 @@ package jdux;
 
 interface LazyLoading {
     void load();
+
+    /**
+     * Whether the contents can still be read once loaded, rather than being skipped over in a one-pass source.
+     * Loaded nodes that are retained no longer depend on where their source has got to.
+     */
+    default boolean isRetained() {
+        return true;
+    }
 }
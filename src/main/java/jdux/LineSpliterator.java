@@ -0,0 +1,84 @@
+package jdux;
+
+import java.nio.ByteBuffer;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Newline-delimited JSON over a UTF-8 buffer holding the whole input.  Splits fall on line boundaries so that
+ * parallel streams parse separate records on each thread.  Blank lines are skipped.
+ */
+final class LineSpliterator implements Spliterator<JsonNode> {
+
+    private static final int MIN_SPLIT = 1 << 12;
+
+    private final ByteBuffer buffer;
+    private final JsonParser parser;
+    private int position;
+    private final int end;
+
+    LineSpliterator(ByteBuffer buffer, JsonParser parser) {
+        this(buffer, parser, buffer.position(), buffer.limit());
+    }
+
+    private LineSpliterator(ByteBuffer buffer, JsonParser parser, int position, int end) {
+        this.buffer = buffer;
+        this.parser = parser;
+        this.position = position;
+        this.end = end;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super JsonNode> action) {
+        while (position < end) {
+            final int start = position, lineEnd = endOfLine(start);
+            position = Math.min(lineEnd + 1, end);
+            if (!isBlank(start, lineEnd)) {
+                action.accept(parser.parse(TextInput.wrap(buffer.duplicate().position(start).limit(lineEnd))));
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Split at the first line break after the midpoint.
+     */
+    @Override
+    public Spliterator<JsonNode> trySplit() {
+        if (end - position < MIN_SPLIT)
+            return null;
+        final int split = endOfLine(position + (end - position) / 2) + 1;
+        if (split >= end)
+            return null;
+        final LineSpliterator prefix = new LineSpliterator(buffer, parser, position, split);
+        position = split;
+        return prefix;
+    }
+
+    private int endOfLine(int from) {
+        int i = from;
+        while (i < end && buffer.get(i) != '\n')
+            i++;
+        return i;
+    }
+
+    private boolean isBlank(int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (!Character.isWhitespace(buffer.get(i)))
+                return false;
+        }
+        return true;
+    }
+
+    @Override
+    public long estimateSize() {
+        return end - position;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | NONNULL | IMMUTABLE;
+    }
+
+}
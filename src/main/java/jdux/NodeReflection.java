@@ -1,22 +1,25 @@
 package jdux;
 
-import java.lang.reflect.Field;
-import java.lang.reflect.Method;
-import java.lang.reflect.Modifier;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.TemporalAccessor;
 import java.util.*;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import static java.util.stream.Collectors.toList;
 
 public class NodeReflection {
 
+    @SuppressWarnings("unchecked")
     JsonNode toNode(Object obj) {
         if (obj == null)
-            return new JsonNode.NullNode();
+            return JsonNode.NullNode.INSTANCE;
         if (obj instanceof String s)
             return new JsonNode.StringNode(s);
+        final Class<?> codecType = obj instanceof Enum<?> e ? e.getDeclaringClass() : obj.getClass();
+        final TypeCodec<Object> codec = TypeCodecs.get((Class<Object>) codecType);
+        if (codec != null)
+            return codec.encode(obj);
         if (obj instanceof TemporalAccessor ta)
             return new JsonNode.StringNode(DateTimeFormatter.ISO_INSTANT.format(ta));
         if (obj instanceof Collection<?> collection)
@@ -26,19 +29,32 @@ public class NodeReflection {
         if (obj instanceof Map<?, ?> map)
             return new MapNode(map);
         Class<?> type = obj.getClass();
+        if (obj instanceof Boolean b)
+            return JsonNode.BooleanNode.of(b);
+        if (obj instanceof Double d)
+            return new JsonNode.NumberNode(d.doubleValue());
+        if (obj instanceof Float f)
+            return new JsonNode.NumberNode(f.floatValue());
+        if (obj instanceof Number n && Primitives.isWrapperType(type))
+            return new JsonNode.NumberNode(n.longValue());
         if (type.isPrimitive() || Primitives.isWrapperType(type))
             return new JsonNode.ValueNode<>(obj);
-        if (type.isEnum())
-            return new JsonNode.StringNode(obj.toString());
+        if (PrimitiveArrays.isPrimitiveArray(type))
+            return new PrimitiveArrays.PrimitiveArrayNode(obj);
         if (type.isArray())
             return new ListNode(Arrays.stream((Object[]) obj)
                 .map(this::toNode)
                 .collect(toList()));
         if (type.isRecord())
-            return new RecordNode(obj);
+            return toNode(RecordCodecs.get(type), obj);
         throw new JsonReflectException("Unsupported type " + obj);
     }
 
+    @SuppressWarnings("unchecked")
+    private JsonNode toNode(RecordCodec<?> codec, Object record) {
+        return codec == null ? new RecordNode(record) : ((RecordCodec<Object>) codec).toNode(record);
+    }
+
     static class ListNode implements ArrayNode {
 
         private final List<JsonNode> nodes;
@@ -68,6 +84,33 @@ public class NodeReflection {
         }
     }
 
+    /**
+     * Object whose fields are already built, kept in the order given.
+     */
+    static class FieldsNode implements ObjectNode {
+
+        private final List<LabelledNode> fields;
+
+        FieldsNode(List<LabelledNode> fields) {
+            this.fields = fields;
+        }
+
+        @Override
+        public Iterator<? extends LabelledNode> childrenIter() {
+            return fields.iterator();
+        }
+
+        @Override
+        public Stream<? extends LabelledNode> children() {
+            return fields.stream();
+        }
+
+        @Override
+        public String toString() {
+            return jsonString();
+        }
+    }
+
     private class RecordNode implements ObjectNode {
 
         private final Object record;
@@ -78,26 +121,41 @@ public class NodeReflection {
 
         @Override
         public Stream<? extends LabelledNode> children() {
-            return Stream.of(record.getClass().getDeclaredFields())
-                .filter(f -> !Modifier.isStatic(f.getModifiers()))
-                .map(this::asLabeledNode);
+            final RecordMetadata metadata = RecordMetadata.of(record.getClass());
+            return IntStream.range(0, metadata.size())
+                .mapToObj(i -> new LabelledNodeDecorator(metadata.name(i), toNode(metadata.get(record, i))));
+        }
+
+        @Override
+        public String toString() {
+            return jsonString();
+        }
+
+    }
+
+    /**
+     * Record components given as names and values, for generated codecs.
+     */
+    static class ComponentsNode implements ObjectNode {
+
+        private final String[] names;
+        private final Object[] values;
+
+        ComponentsNode(String[] names, Object[] values) {
+            this.names = names;
+            this.values = values;
         }
 
-        private LabelledNode asLabeledNode(Field field) {
-            try {
-                Method getter = record.getClass().getMethod(field.getName());
-                JsonNode value = toNode(getter.invoke(record));
-                return new LabelledNodeDecorator(field.getName(), value);
-            } catch (ReflectiveOperationException e) {
-                throw new JsonReflectException(e);
-            }
+        @Override
+        public Stream<? extends LabelledNode> children() {
+            return IntStream.range(0, names.length)
+                .mapToObj(i -> new LabelledNodeDecorator(names[i], JDux.node(values[i])));
         }
 
         @Override
         public String toString() {
             return jsonString();
         }
-
     }
 
     class MapNode implements ObjectNode {
@@ -0,0 +1,103 @@
+package jdux;
+
+/**
+ * Reads a number in a single pass.  Integers that fit in a long are accumulated as they are read, anything else
+ * is collected as text to be decoded later.  Instances are reused between numbers, so not thread-safe.
+ */
+final class NumberScanner {
+
+    private final StringBuilder raw = new StringBuilder(32);
+    private long integral;
+    private boolean isRaw;
+
+    /**
+     * Read the number at the current position.
+     * @return this scanner, holding the result
+     */
+    NumberScanner scan(TextInput text) {
+        raw.setLength(0);
+        isRaw = false;
+        final boolean negative = text.peek() == '-';
+        if (negative)
+            text.skip();
+        long value = 0L;
+        int digits = 0;
+        while (text.hasNext() && isDigit(text.peek())) {
+            final int digit = text.read() - '0';
+            digits++;
+            if (isRaw)
+                raw.append((char) ('0' + digit));
+            else if (value <= (Long.MAX_VALUE - digit) / 10)
+                value = value * 10 + digit;
+            else
+                startRaw(negative, value).append((char) ('0' + digit));
+        }
+        if (digits == 0)
+            throw new JsonParseException("Expected digit in number value", text);
+        if (text.hasNext() && text.peek() == '.') {
+            startRaw(negative, value).append((char) text.read());
+            readDigits(text);
+        }
+        if (text.hasNext() && (text.peek() == 'e' || text.peek() == 'E')) {
+            startRaw(negative, value).append((char) text.read());
+            if (text.hasNext() && (text.peek() == '+' || text.peek() == '-'))
+                raw.append((char) text.read());
+            readDigits(text);
+        }
+        if (text.hasNext() && isNumeric(text.peek()))
+            throw new JsonParseException("Unexpected character in number value: " + (char) text.peek(), text);
+        integral = negative ? -value : value;
+        return this;
+    }
+
+    private StringBuilder startRaw(boolean negative, long value) {
+        if (!isRaw) {
+            isRaw = true;
+            raw.append(negative ? "-" : "").append(value);
+        }
+        return raw;
+    }
+
+    private void readDigits(TextInput text) {
+        final int length = raw.length();
+        while (text.hasNext() && isDigit(text.peek()))
+            raw.append((char) text.read());
+        if (raw.length() == length)
+            throw new JsonParseException("Expected digit in number value \"" + raw + "\"", text);
+    }
+
+    /**
+     * ASCII digits only, as JSON allows no others.
+     */
+    static boolean isDigit(int ch) {
+        return ch >= '0' && ch <= '9';
+    }
+
+    /**
+     * Characters that can't follow a number, including non-ASCII digits so that they're reported rather than
+     * ending the number early.
+     */
+    static boolean isNumeric(int ch) {
+        return Character.isDigit(ch) || ch == 'e' || ch == 'E' || ch == '.' || ch == '-' || ch == '+';
+    }
+
+    /**
+     * Whether the number was too precise for a long, and so kept as text.
+     */
+    boolean isRaw() {
+        return isRaw;
+    }
+
+    long integral() {
+        return integral;
+    }
+
+    String raw() {
+        return raw.toString();
+    }
+
+    JsonNode.NumberNode toNode() {
+        return isRaw ? new JsonNode.NumberNode(raw()) : new JsonNode.NumberNode(integral);
+    }
+
+}
@@ -1,59 +1,51 @@
 package jdux;
 
-import java.lang.reflect.Constructor;
-import java.lang.reflect.Parameter;
+import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.util.Iterator;
-import java.util.Map;
 import java.util.stream.Stream;
 
-import static java.util.Arrays.stream;
-import static java.util.Comparator.comparingInt;
-import static java.util.stream.Collectors.toMap;
-import static jdux.Shorthands.unchecked;
 import static jdux.Streams.merge;
 
 public interface ObjectNode extends JsonNode {
 
-    record ChildNodeMap(Map<String, JsonNode> childMap) {
-        ChildNodeMap(Stream<? extends LabelledNode> children) {
-            this(children.collect(toMap(LabelledNode::label, LabelledNode::unlabelled)));
-        }
-        int numberOfMatchingFields(Constructor<?> ctor) {
-            return (int) stream(ctor.getParameters())
-                .map(Parameter::getName)
-                .filter(childMap::containsKey)
-                .count();
-        }
-        Object callConstructor(Constructor<?> ctor) {
-            try {
-                Object[] args = stream(ctor.getParameters())
-                    .map(param -> childMap.getOrDefault(param.getName(), new NullNode()).asA(param.getParameterizedType()))
-                    .toArray();
-                return ctor.newInstance(args);
-            } catch (ReflectiveOperationException e) {
-                throw new JsonReflectException(e);
-            }
-        }
-    }
-
+    /**
+     * Map through a registered type codec or a generated record codec if there is one, otherwise through the
+     * record's canonical constructor, matching children to components by name.
+     */
     @SuppressWarnings("unchecked")
     @Override
     default <E> E asA(Class<E> type) {
-        if (!type.isRecord())
-            throw new NonRecordTypeException(type);
-        ChildNodeMap childNodeMap = new ChildNodeMap(children());
-        return (E) stream(type.getConstructors())
-            .max(comparingInt(childNodeMap::numberOfMatchingFields))
-            .map(childNodeMap::callConstructor)
-            .orElseThrow(NoSuitableConstructorException::new);
+        final TypeCodec<E> typeCodec = TypeCodecs.registered(type);
+        if (typeCodec != null)
+            return typeCodec.decode(this);
+        final RecordCodec<E> codec = RecordCodecs.get(type);
+        if (codec != null)
+            return codec.fromNode(this);
+        return (E) asRecord(RecordMetadata.of(type), type);
     }
 
+    /**
+     * Map to a record, including generic records such as Page&lt;User&gt;, whose type arguments are carried
+     * through to the components.
+     */
     @Override
     default Object asA(Type type) {
         if (type instanceof Class<?> c)
             return asA(c);
-        throw new JsonReflectException("Only classes supported for now"); // TODO
+        if (type instanceof ParameterizedType pt && pt.getRawType() instanceof Class<?> c && c.isRecord())
+            return asRecord(RecordMetadata.of(c), type);
+        throw new JsonReflectException("Expected record type but was " + type.getTypeName());
+    }
+
+    private Object asRecord(RecordMetadata record, Type type) {
+        final Object[] args = new Object[record.size()];
+        children().forEach(child -> {
+            final int index = record.indexOf(child.label());
+            if (index >= 0)
+                args[index] = child.unlabelled().asA(record.type(index, type));
+        });
+        return record.create(args);
     }
 
     @Override
@@ -85,7 +77,7 @@ public interface ObjectNode extends JsonNode {
         return children()
             .filter(n -> n.label().equals(key))
             .map(LabelledNode::unlabelled)
-            .findFirst().orElseGet(NullNode::new);
+            .findFirst().orElse(NullNode.INSTANCE);
     }
 
     class NonRecordTypeException extends JsonReflectException {
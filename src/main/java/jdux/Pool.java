@@ -1,16 +1,50 @@
 package jdux;
 
 import java.util.ArrayDeque;
+import java.util.function.IntFunction;
 import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
 
 public interface Pool<T> {
 
     T get();
 
+    /**
+     * Get an item of at least the given size, for pools that hold items of different sizes.
+     */
+    default T get(int minSize) {
+        return get();
+    }
+
     void put(T obj);
 
+    /**
+     * Reuses (hits) versus new allocations (misses) for calls to get.
+     */
+    CacheStats stats();
+
     static <T> Pool<T> create(Supplier<T> supplier) {
         return new DequePool<>(new ArrayDeque<>(), supplier);
     }
 
+    /**
+     * Create a pool that is safe for use by many threads.
+     * @param supplier    creates new items when none are free
+     * @param maxRetained most free items to hold on to beyond the one kept per thread
+     */
+    static <T> Pool<T> concurrent(Supplier<T> supplier, int maxRetained) {
+        return new ConcurrentPool<>(supplier, maxRetained);
+    }
+
+    /**
+     * Create a thread-safe pool with a separate class for each of the given sizes.
+     * @param allocate    creates a new item of the given size
+     * @param size        gets the size of an item being returned
+     * @param maxRetained most free items to hold on to for each size
+     * @param sizes       the size classes, smallest first; the first is the default
+     */
+    static <T> Pool<T> sized(IntFunction<T> allocate, ToIntFunction<T> size, int maxRetained, int... sizes) {
+        return new SizedPool<>(allocate, size, maxRetained, sizes);
+    }
+
 }
@@ -0,0 +1,200 @@
+package jdux;
+
+import java.lang.reflect.Array;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static jdux.JsonToken.END_ARRAY;
+import static jdux.JsonToken.NULL;
+
+/**
+ * Mapping between JSON arrays and the eight primitive array types, without boxing the elements.  While the length
+ * is unknown, elements are gathered in a growable long[], double[] or boolean[] buffer and narrowed at the end.
+ */
+final class PrimitiveArrays {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private PrimitiveArrays() {
+        throw new AssertionError("This is a static utility class.");
+    }
+
+    static boolean isPrimitiveArray(Class<?> type) {
+        return type.isArray() && type.getComponentType().isPrimitive();
+    }
+
+    /**
+     * Convert the children of an array node into an array of the given primitive type.
+     */
+    static Object fromNodes(Class<?> component, Iterator<? extends JsonNode> children) {
+        int size = 0;
+        if (component == boolean.class) {
+            boolean[] buffer = new boolean[INITIAL_CAPACITY];
+            while (children.hasNext()) {
+                if (size == buffer.length)
+                    buffer = Arrays.copyOf(buffer, size * 2);
+                final Object value = children.next().asA(Boolean.class);
+                buffer[size++] = value != null && (Boolean) value;
+            }
+            return Arrays.copyOf(buffer, size);
+        } else if (component == char.class) {
+            final StringBuilder buffer = new StringBuilder();
+            while (children.hasNext()) {
+                final String value = children.next().asA(String.class);
+                buffer.append(value == null || value.isEmpty() ? '\0' : value.charAt(0));
+            }
+            return buffer.toString().toCharArray();
+        } else if (component == double.class || component == float.class) {
+            double[] buffer = new double[INITIAL_CAPACITY];
+            while (children.hasNext()) {
+                if (size == buffer.length)
+                    buffer = Arrays.copyOf(buffer, size * 2);
+                buffer[size++] = doubleValue(children.next());
+            }
+            return narrow(component, buffer, size);
+        }
+        long[] buffer = new long[INITIAL_CAPACITY];
+        while (children.hasNext()) {
+            if (size == buffer.length)
+                buffer = Arrays.copyOf(buffer, size * 2);
+            buffer[size++] = longValue(children.next());
+        }
+        return narrow(component, buffer, size);
+    }
+
+    /**
+     * Read the elements of an array into an array of the given primitive type.  The reader is positioned on the
+     * START_ARRAY, and is left on the END_ARRAY.
+     */
+    static Object read(Class<?> component, JsonReader reader) {
+        int size = 0;
+        if (component == boolean.class) {
+            boolean[] buffer = new boolean[INITIAL_CAPACITY];
+            for (JsonToken token = reader.next(); token != END_ARRAY; token = reader.next()) {
+                if (size == buffer.length)
+                    buffer = Arrays.copyOf(buffer, size * 2);
+                buffer[size++] = token != NULL && reader.getBoolean();
+            }
+            return Arrays.copyOf(buffer, size);
+        } else if (component == char.class) {
+            final StringBuilder buffer = new StringBuilder();
+            for (JsonToken token = reader.next(); token != END_ARRAY; token = reader.next()) {
+                final String value = token == NULL ? "" : reader.getString();
+                buffer.append(value.isEmpty() ? '\0' : value.charAt(0));
+            }
+            return buffer.toString().toCharArray();
+        } else if (component == double.class || component == float.class) {
+            double[] buffer = new double[INITIAL_CAPACITY];
+            for (JsonToken token = reader.next(); token != END_ARRAY; token = reader.next()) {
+                if (size == buffer.length)
+                    buffer = Arrays.copyOf(buffer, size * 2);
+                buffer[size++] = token == NULL ? 0.0 : reader.getDouble();
+            }
+            return narrow(component, buffer, size);
+        }
+        long[] buffer = new long[INITIAL_CAPACITY];
+        for (JsonToken token = reader.next(); token != END_ARRAY; token = reader.next()) {
+            if (size == buffer.length)
+                buffer = Arrays.copyOf(buffer, size * 2);
+            buffer[size++] = token == NULL ? 0L : reader.getLong();
+        }
+        return narrow(component, buffer, size);
+    }
+
+    private static long longValue(JsonNode node) {
+        if (node instanceof JsonNode.NumberNode nn)
+            return nn.longValue();
+        final Object value = node.asA(Long.class);
+        return value instanceof Number n ? n.longValue() : 0L;
+    }
+
+    private static double doubleValue(JsonNode node) {
+        if (node instanceof JsonNode.NumberNode nn)
+            return nn.doubleValue();
+        final Object value = node.asA(Double.class);
+        return value instanceof Number n ? n.doubleValue() : 0.0;
+    }
+
+    private static Object narrow(Class<?> component, double[] buffer, int size) {
+        if (component == double.class)
+            return Arrays.copyOf(buffer, size);
+        final float[] array = new float[size];
+        for (int i = 0; i < size; i++)
+            array[i] = (float) buffer[i];
+        return array;
+    }
+
+    private static Object narrow(Class<?> component, long[] buffer, int size) {
+        if (component == long.class)
+            return Arrays.copyOf(buffer, size);
+        if (component == int.class) {
+            final int[] array = new int[size];
+            for (int i = 0; i < size; i++)
+                array[i] = (int) exact(buffer[i], Integer.MIN_VALUE, Integer.MAX_VALUE, component);
+            return array;
+        }
+        if (component == short.class) {
+            final short[] array = new short[size];
+            for (int i = 0; i < size; i++)
+                array[i] = (short) exact(buffer[i], Short.MIN_VALUE, Short.MAX_VALUE, component);
+            return array;
+        }
+        final byte[] array = new byte[size];
+        for (int i = 0; i < size; i++)
+            array[i] = (byte) exact(buffer[i], Byte.MIN_VALUE, Byte.MAX_VALUE, component);
+        return array;
+    }
+
+    private static long exact(long value, long min, long max, Class<?> component) {
+        if (value < min || value > max)
+            throw new JsonReflectException("Number " + value + " is out of range for " + component.getName());
+        return value;
+    }
+
+    /**
+     * Array node over a primitive array, creating element nodes only as they are visited.
+     */
+    static final class PrimitiveArrayNode implements ArrayNode {
+
+        private final Object array;
+        private final Class<?> component;
+
+        PrimitiveArrayNode(Object array) {
+            this.array = array;
+            this.component = array.getClass().getComponentType();
+        }
+
+        @Override
+        public JsonNode get(int index) {
+            if (component == int.class)
+                return new JsonNode.NumberNode(((int[]) array)[index]);
+            if (component == long.class)
+                return new JsonNode.NumberNode(((long[]) array)[index]);
+            if (component == double.class)
+                return new JsonNode.NumberNode(((double[]) array)[index]);
+            if (component == float.class)
+                return new JsonNode.NumberNode(((float[]) array)[index]);
+            if (component == short.class)
+                return new JsonNode.NumberNode(((short[]) array)[index]);
+            if (component == byte.class)
+                return new JsonNode.NumberNode(((byte[]) array)[index]);
+            if (component == boolean.class)
+                return JsonNode.BooleanNode.of(((boolean[]) array)[index]);
+            return new JsonNode.StringNode(String.valueOf(((char[]) array)[index]));
+        }
+
+        @Override
+        public Stream<? extends JsonNode> children() {
+            return IntStream.range(0, Array.getLength(array)).mapToObj(this::get);
+        }
+
+        @Override
+        public String toString() {
+            return jsonString();
+        }
+
+    }
+
+}
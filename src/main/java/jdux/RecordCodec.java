@@ -0,0 +1,36 @@
+package jdux;
+
+import java.lang.reflect.Type;
+
+/**
+ * Maps one record type to and from JSON without reflection.  Implementations are generated for records annotated
+ * with {@link JsonCodec}, and registered with ServiceLoader so that JDux uses them in place of reflective mapping.
+ */
+public interface RecordCodec<T> {
+
+    Class<T> type();
+
+    JsonNode toNode(T value);
+
+    T fromNode(ObjectNode node);
+
+    /**
+     * Read a record from the reader, which is positioned on its START_OBJECT.
+     */
+    T read(JsonReader reader);
+
+    /**
+     * Object node for a record's components, converting values as children are visited.
+     */
+    static ObjectNode objectNode(String[] names, Object[] values) {
+        return new NodeReflection.ComponentsNode(names, values);
+    }
+
+    /**
+     * Generic type of a record component, for components that a class literal can't describe.
+     */
+    static Type componentType(Class<?> type, int index) {
+        return type.getRecordComponents()[index].getGenericType();
+    }
+
+}
@@ -0,0 +1,35 @@
+package jdux;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.ServiceLoader;
+
+/**
+ * Registry of the generated record codecs found on the class path, loaded on first use.
+ */
+final class RecordCodecs {
+
+    private RecordCodecs() {
+        throw new AssertionError("This is a static utility class.");
+    }
+
+    private static final class Holder {
+        private static final Map<Class<?>, RecordCodec<?>> CODECS = load();
+    }
+
+    private static Map<Class<?>, RecordCodec<?>> load() {
+        final Map<Class<?>, RecordCodec<?>> codecs = new HashMap<>();
+        for (RecordCodec<?> codec : ServiceLoader.load(RecordCodec.class, RecordCodecs.class.getClassLoader()))
+            codecs.put(codec.type(), codec);
+        return codecs;
+    }
+
+    /**
+     * Codec for the given record type, or null if none was generated.
+     */
+    @SuppressWarnings("unchecked")
+    static <T> RecordCodec<T> get(Class<T> type) {
+        return (RecordCodec<T>) Holder.CODECS.get(type);
+    }
+
+}
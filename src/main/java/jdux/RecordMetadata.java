@@ -0,0 +1,245 @@
+package jdux;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaConversionException;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.RecordComponent;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import static java.lang.invoke.MethodType.methodType;
+
+/**
+ * Reflection details for a record type, worked out once per class: its canonical constructor, the name and type
+ * of each component, and handles for reading them back.  Used for mapping records both to and from JSON.
+ *
+ * Component reads are bound to generated functions with LambdaMetafactory, and the constructor to an exact
+ * method handle, so mapping avoids reflective calls.  Set the system property jdux.codecs=reflect to use plain
+ * reflection instead; it is also used for any type the generated codec can't be bound to.
+ */
+final class RecordMetadata {
+
+    private static final boolean GENERATE = !"reflect".equals(System.getProperty("jdux.codecs"));
+
+    private static final LongAdder LOOKUPS = new LongAdder(), MISSES = new LongAdder();
+
+    private static final ClassValue<RecordMetadata> CACHE = new ClassValue<>() {
+        @Override
+        protected RecordMetadata computeValue(Class<?> type) {
+            MISSES.increment();
+            return new RecordMetadata(type);
+        }
+    };
+
+    private final String[] names;
+    private final Type[] types;
+    private final TypeVariable<?>[] parameters;
+    private final Object[] defaults;
+    private final Function<Object, Object>[] accessors;
+    private final Function<Object[], Object> constructor;
+    private final Map<String, Integer> indexes;
+    private boolean bound;
+
+    /**
+     * Metadata for the given record type.
+     */
+    static RecordMetadata of(Class<?> type) {
+        if (!type.isRecord())
+            throw new ObjectNode.NonRecordTypeException(type);
+        LOOKUPS.increment();
+        return CACHE.get(type);
+    }
+
+    static CacheStats stats() {
+        final long lookups = LOOKUPS.sum(), misses = MISSES.sum();
+        return new CacheStats(lookups - misses, misses);
+    }
+
+    @SuppressWarnings("unchecked")
+    private RecordMetadata(Class<?> type) {
+        final RecordComponent[] components = type.getRecordComponents();
+        final Class<?>[] rawTypes = new Class<?>[components.length];
+        this.names = new String[components.length];
+        this.types = new Type[components.length];
+        this.parameters = type.getTypeParameters();
+        this.defaults = new Object[components.length];
+        this.accessors = (Function<Object, Object>[]) new Function<?, ?>[components.length];
+        this.indexes = new HashMap<>(components.length * 2);
+        final MethodHandles.Lookup lookup = GENERATE ? lookup(type) : null;
+        this.bound = lookup != null;
+        try {
+            for (int i = 0; i < components.length; i++) {
+                names[i] = components[i].getName();
+                types[i] = components[i].getGenericType();
+                rawTypes[i] = components[i].getType();
+                defaults[i] = rawTypes[i].isPrimitive() ? Array.get(Array.newInstance(rawTypes[i], 1), 0) : null;
+                accessors[i] = accessor(lookup, type, components[i].getAccessor());
+                indexes.put(names[i], i);
+            }
+            this.constructor = constructor(lookup, type.getDeclaredConstructor(rawTypes));
+        } catch (ReflectiveOperationException e) {
+            throw new JsonReflectException(e);
+        }
+    }
+
+    /**
+     * Lookup with private access to the record, or null if its module doesn't allow one.
+     */
+    private static MethodHandles.Lookup lookup(Class<?> type) {
+        try {
+            return MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+        } catch (IllegalAccessException | SecurityException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Whether components are read through functions bound with LambdaMetafactory and the record is created
+     * through a method handle, rather than through reflection.
+     */
+    boolean isBound() {
+        return bound;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Function<Object, Object> accessor(MethodHandles.Lookup lookup, Class<?> type, Method method)
+            throws ReflectiveOperationException {
+        if (lookup != null) {
+            CallSite site;
+            try {
+                site = LambdaMetafactory.metafactory(
+                    lookup, "apply", methodType(Function.class), methodType(Object.class, Object.class),
+                    lookup.unreflect(method), methodType(Primitives.wrap(method.getReturnType()), type));
+            } catch (LambdaConversionException e) {
+                site = null;
+            }
+            if (site != null) {
+                try {
+                    return (Function<Object, Object>) site.getTarget().invokeExact();
+                } catch (RuntimeException | Error e) {
+                    throw e;
+                } catch (Throwable e) {
+                    throw new JsonReflectException(e);
+                }
+            }
+            bound = false;
+        }
+        method.trySetAccessible();
+        return record -> {
+            try {
+                return method.invoke(record);
+            } catch (ReflectiveOperationException e) {
+                throw new JsonReflectException(e);
+            }
+        };
+    }
+
+    private static Function<Object[], Object> constructor(MethodHandles.Lookup lookup, Constructor<?> ctor)
+            throws ReflectiveOperationException {
+        if (lookup != null) {
+            final MethodHandle handle = lookup.unreflectConstructor(ctor)
+                .asSpreader(Object[].class, ctor.getParameterCount())
+                .asType(methodType(Object.class, Object[].class));
+            return args -> {
+                try {
+                    return (Object) handle.invokeExact(args);
+                } catch (Throwable e) {
+                    throw new JsonReflectException(e);
+                }
+            };
+        }
+        ctor.trySetAccessible();
+        return args -> {
+            try {
+                return ctor.newInstance(args);
+            } catch (ReflectiveOperationException e) {
+                throw new JsonReflectException(e);
+            }
+        };
+    }
+
+    int size() {
+        return names.length;
+    }
+
+    String name(int index) {
+        return names[index];
+    }
+
+    Type type(int index) {
+        return types[index];
+    }
+
+    /**
+     * Type of a component, with the record's type variables bound to the arguments of the given type.
+     */
+    Type type(int index, Type owner) {
+        if (parameters.length == 0 || !(owner instanceof ParameterizedType pt))
+            return types[index];
+        return bind(types[index], pt.getActualTypeArguments());
+    }
+
+    private Type bind(Type type, Type[] arguments) {
+        if (type instanceof TypeVariable<?> variable) {
+            for (int i = 0; i < parameters.length; i++) {
+                if (parameters[i].equals(variable))
+                    return arguments[i];
+            }
+        } else if (type instanceof ParameterizedType pt) {
+            final Type[] bound = pt.getActualTypeArguments().clone();
+            for (int i = 0; i < bound.length; i++)
+                bound[i] = bind(bound[i], arguments);
+            return new Parameterized(pt.getRawType(), bound, pt.getOwnerType());
+        }
+        return type;
+    }
+
+    /**
+     * Position of the component with the given name, or -1 if there is none.
+     */
+    int indexOf(String name) {
+        final Integer index = indexes.get(name);
+        return index == null ? -1 : index;
+    }
+
+    Object get(Object record, int index) {
+        return accessors[index].apply(record);
+    }
+
+    /**
+     * Call the canonical constructor, using default values for missing primitives.
+     * @param args values by component position, which may be filled in
+     */
+    Object create(Object[] args) {
+        for (int i = 0; i < args.length; i++) {
+            if (args[i] == null)
+                args[i] = defaults[i];
+        }
+        return constructor.apply(args);
+    }
+
+    /**
+     * Parameterized type with its variables bound.
+     */
+    private record Parameterized(Type getRawType, Type[] getActualTypeArguments, Type getOwnerType)
+            implements ParameterizedType {
+        @Override
+        public String getTypeName() {
+            final StringBuilder name = new StringBuilder(getRawType.getTypeName()).append('<');
+            for (int i = 0; i < getActualTypeArguments.length; i++)
+                name.append(i == 0 ? "" : ", ").append(getActualTypeArguments[i].getTypeName());
+            return name.append('>').toString();
+        }
+    }
+
+}
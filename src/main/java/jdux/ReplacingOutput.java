@@ -0,0 +1,124 @@
+package jdux;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermission;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Writes UTF-8 to a sibling of a file, which replaces the file when closed.  Readers never see a partly written
+ * file, and earlier mappings of the file stay valid.  The sibling takes the file's permissions, and links to the
+ * file are followed rather than replaced.  If writing fails, discard() removes the sibling instead.
+ */
+final class ReplacingOutput extends Utf8Output {
+
+    private final Path file, temp;
+
+    private ReplacingOutput(Path file, Path temp) throws IOException {
+        super(FileChannel.open(temp, WRITE));
+        this.file = file;
+        this.temp = temp;
+    }
+
+    static ReplacingOutput open(Path file) {
+        final Path target, temp;
+        try {
+            target = resolve(file);
+            temp = createSibling(target);
+        } catch (IOException e) {
+            throw new IORuntimeException(e);
+        }
+        try {
+            return new ReplacingOutput(target, temp);
+        } catch (IOException e) {
+            throw delete(temp, new IORuntimeException(e));
+        }
+    }
+
+    /**
+     * The file a path leads to, following links, so that replacing it leaves the links in place.
+     */
+    private static Path resolve(Path file) throws IOException {
+        if (Files.exists(file))
+            return file.toRealPath();
+        final Path absolute = file.toAbsolutePath();
+        return absolute.getParent().toRealPath().resolve(absolute.getFileName());
+    }
+
+    /**
+     * Create an empty sibling with the same permissions as the target, or the defaults for a new file.
+     */
+    private static Path createSibling(Path target) throws IOException {
+        final Set<PosixFilePermission> permissions = Files.exists(target)
+                && Files.getFileStore(target).supportsFileAttributeView(PosixFileAttributeView.class)
+            ? Files.getPosixFilePermissions(target)
+            : null;
+        while (true) {
+            final String suffix = Long.toUnsignedString(ThreadLocalRandom.current().nextLong(), 36);
+            final Path temp = target.resolveSibling(target.getFileName() + "." + suffix + ".tmp");
+            try {
+                Files.createFile(temp);
+            } catch (FileAlreadyExistsException e) {
+                continue;
+            }
+            try {
+                if (permissions != null)
+                    Files.setPosixFilePermissions(temp, permissions);
+            } catch (IOException e) {
+                Files.deleteIfExists(temp);
+                throw e;
+            }
+            return temp;
+        }
+    }
+
+    /**
+     * Flush, then move the written file over the original.
+     */
+    @Override
+    public void close() {
+        try {
+            super.close();
+            Files.move(temp, file, REPLACE_EXISTING, ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw delete(temp, new IORuntimeException(e));
+        } catch (RuntimeException e) {
+            throw delete(temp, e);
+        }
+    }
+
+    /**
+     * Close without replacing the file, deleting anything written so far.
+     */
+    void discard() {
+        try {
+            abort();
+        } catch (IOException e) {
+            throw delete(temp, new IORuntimeException(e));
+        }
+        try {
+            Files.deleteIfExists(temp);
+        } catch (IOException e) {
+            throw new IORuntimeException(e);
+        }
+    }
+
+    private static RuntimeException delete(Path temp, RuntimeException failure) {
+        try {
+            Files.deleteIfExists(temp);
+        } catch (IOException e) {
+            failure.addSuppressed(e);
+        }
+        return failure;
+    }
+
+}
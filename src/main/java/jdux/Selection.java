@@ -0,0 +1,88 @@
+package jdux;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static java.util.Collections.emptyList;
+import static jdux.JsonSelectType.DESCENDANT;
+
+/**
+ * Matching of JSON paths against labels, one level at a time.  A level is described by the list of selectors
+ * still in play for the children of a node, so that paths can be followed without first building the tree.
+ */
+final class Selection {
+
+    private static final Step NO_MATCH = new Step(false, emptyList());
+
+    private Selection() {
+        throw new AssertionError("This is a static utility class.");
+    }
+
+    /**
+     * Result of following a label.
+     * @param matched whether a path ends on the label
+     * @param next    selectors that apply to the children of the labelled value
+     */
+    record Step(boolean matched, List<JsonSelector> next) {}
+
+    static Step step(List<JsonSelector> states, String label) {
+        boolean matched = false;
+        List<JsonSelector> next = null;
+        for (JsonSelector state : states) {
+            if (state.key().equals(label)) {
+                if (state.hasNext())
+                    next = add(next, state.next());
+                else
+                    matched = true;
+            }
+            if (state.type() == DESCENDANT)
+                next = add(next, state);
+        }
+        if (!matched && next == null)
+            return NO_MATCH;
+        return new Step(matched, next == null ? emptyList() : next);
+    }
+
+    /**
+     * Selectors that carry over to array elements, which have no labels of their own.
+     */
+    static List<JsonSelector> elements(List<JsonSelector> states) {
+        List<JsonSelector> next = null;
+        for (JsonSelector state : states) {
+            if (state.type() == DESCENDANT)
+                next = add(next, state);
+        }
+        return next == null ? emptyList() : next;
+    }
+
+    private static List<JsonSelector> add(List<JsonSelector> list, JsonSelector state) {
+        if (list == null)
+            list = new ArrayList<>(2);
+        if (!list.contains(state))
+            list.add(state);
+        return list;
+    }
+
+    /**
+     * Follow the selectors through the children of an existing node.
+     */
+    static Stream<JsonNode> select(JsonNode node, List<JsonSelector> states) {
+        if (states.isEmpty())
+            return Stream.empty();
+        if (node instanceof JsonNode.LabelledNode ln)
+            return select(ln.unlabelled(), states);
+        if (node instanceof ObjectNode on) {
+            return on.children().flatMap(child -> {
+                final Step step = step(states, child.label());
+                final Stream<JsonNode> descendants = select(child.unlabelled(), step.next());
+                return step.matched() ? Stream.concat(Stream.of(child), descendants) : descendants;
+            });
+        } else if (node instanceof ArrayNode an) {
+            final List<JsonSelector> next = elements(states);
+            return next.isEmpty() ? Stream.empty() : an.children().flatMap(child -> select(child, next));
+        }
+        return Stream.empty();
+    }
+
+}
@@ -0,0 +1,62 @@
+package jdux;
+
+import java.util.Arrays;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
+
+/**
+ * A concurrent pool per size class.  Requests larger than the biggest class are allocated without pooling, and
+ * items that don't match a class exactly are not kept.
+ */
+class SizedPool<T> implements Pool<T> {
+
+    private final IntFunction<T> allocate;
+    private final ToIntFunction<T> size;
+    private final int[] sizes;
+    private final ConcurrentPool<T>[] pools;
+
+    @SuppressWarnings("unchecked")
+    SizedPool(IntFunction<T> allocate, ToIntFunction<T> size, int maxRetained, int... sizes) {
+        this.allocate = allocate;
+        this.size = size;
+        this.sizes = sizes.clone();
+        this.pools = (ConcurrentPool<T>[]) new ConcurrentPool<?>[sizes.length];
+        for (int i = 0; i < sizes.length; i++) {
+            final int classSize = sizes[i];
+            pools[i] = new ConcurrentPool<>(() -> allocate.apply(classSize), maxRetained);
+        }
+    }
+
+    @Override
+    public T get() {
+        return pools[0].get();
+    }
+
+    @Override
+    public T get(int minSize) {
+        for (int i = 0; i < sizes.length; i++) {
+            if (sizes[i] >= minSize)
+                return pools[i].get();
+        }
+        return allocate.apply(minSize);
+    }
+
+    @Override
+    public void put(T item) {
+        final int i = Arrays.binarySearch(sizes, size.applyAsInt(item));
+        if (i >= 0)
+            pools[i].put(item);
+    }
+
+    @Override
+    public CacheStats stats() {
+        long reuses = 0L, allocations = 0L;
+        for (ConcurrentPool<T> pool : pools) {
+            final CacheStats stats = pool.stats();
+            reuses += stats.hits();
+            allocations += stats.misses();
+        }
+        return new CacheStats(reuses, allocations);
+    }
+
+}
@@ -0,0 +1,13 @@
+package jdux;
+
+/**
+ * Node read from a navigable source, which can be written out again by copying its original text rather than
+ * serializing its children.
+ */
+interface SourceSpan {
+    /**
+     * Append the original text, if the source is still available.
+     * @return false if nothing was written
+     */
+    boolean copySource(Appendable out);
+}
@@ -4,6 +4,7 @@ import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 import java.util.function.UnaryOperator;
@@ -22,6 +23,10 @@ class StreamingJsonDB implements JsonDB {
         TextInput input();
         O output();
         void after(O output);
+        /**
+         * Called instead of after(O) when writing fails.
+         */
+        default void failed(O output) {}
     }
 
     record JsonUpdateSubscriber(JsonSelector selection, Consumer<JsonNode> onUpdate) {
@@ -43,10 +48,14 @@ class StreamingJsonDB implements JsonDB {
 
     private final Supplier<TextInput> source;
     private final Supplier<Appendable> sink;
-    private final Consumer<Appendable> after;
+    private final Consumer<Appendable> after, failed;
     private final JsonParser parser;
     private final JsonWriter writer;
     private final Collection<JsonUpdateSubscriber> allSubscribers;
+    private final AtomicLong cacheHits = new AtomicLong(), cacheMisses = new AtomicLong();
+
+    private boolean cacheRoot;
+    private volatile JsonNode cachedRoot;
 
     @SuppressWarnings("unchecked") // TODO lazy
     <O extends Appendable> StreamingJsonDB(StreamOptions<O> streamOptions) {
@@ -54,24 +63,41 @@ class StreamingJsonDB implements JsonDB {
             streamOptions::input,
             streamOptions::output,
             appendable -> streamOptions.after((O) appendable),
+            appendable -> streamOptions.failed((O) appendable),
             new JsonParser(),
-            new JsonWriter()
+            new JsonWriter().copySource(true)
         );
     }
 
     StreamingJsonDB(Supplier<TextInput> source,
                     Supplier<Appendable> sink,
                     Consumer<Appendable> after,
+                    Consumer<Appendable> failed,
                     JsonParser parser,
                     JsonWriter writer) {
         this.source = source;
         this.sink = sink;
         this.after = after;
+        this.failed = failed;
         this.parser = parser;
         this.writer = writer;
         this.allSubscribers = new ArrayList<>();
     }
 
+    /**
+     * When enabled, the root is parsed once into memory and reads are served from there until the next write.
+     */
+    StreamingJsonDB cacheRoot(boolean cacheRoot) {
+        this.cacheRoot = cacheRoot;
+        this.cachedRoot = null;
+        return this;
+    }
+
+    @Override
+    public CacheStats cacheStats() {
+        return new CacheStats(cacheHits.get(), cacheMisses.get());
+    }
+
     @Override
     public void update(String query, UnaryOperator<JsonNode> update) {
         JsonNode updatedNode = decorateRootWithUpdate(query, update);
@@ -84,13 +110,19 @@ class StreamingJsonDB implements JsonDB {
         if (!superSetSubscribers.isEmpty())
             update = then(update, result -> superSetSubscribers.forEach(s -> s.onUpdate.accept(result)));
         var subsetSubscribers = filter(allSubscribers, s -> path.contains(s.selection) && !superSetSubscribers.contains(s));
-        return updateNode(root(false), path, subsetSubscribers, update);
+        return updateNode(cacheRoot ? cachedRoot() : root(false), path, subsetSubscribers, update);
     }
 
     private void writeNode(JsonNode updatedNode) {
         var out = sink.get();
-        writer.write(updatedNode, out);
+        try {
+            writer.write(updatedNode, out);
+        } catch (RuntimeException | Error e) {
+            failed.accept(out);
+            throw e;
+        }
         after.accept(out);
+        cachedRoot = null;
     }
 
     @Override
@@ -101,13 +133,26 @@ class StreamingJsonDB implements JsonDB {
 
     @Override
     public JsonNode root() {
-        return root(true);
+        return cacheRoot ? cachedRoot() : root(true);
     }
 
     private JsonNode root(boolean recall) {
         return parser.recall(recall).parse(source.get());
     }
 
+    private JsonNode cachedRoot() {
+        var root = cachedRoot;
+        if (root != null) {
+            cacheHits.incrementAndGet();
+            return root;
+        }
+        cacheMisses.incrementAndGet();
+        root = parser.recall(true).rescan(false).parse(source.get());
+        if (root instanceof LazyLoading lazyLoading)
+            lazyLoading.load();
+        return cachedRoot = root;
+    }
+
     @Override
     public void subscribe(String query, Consumer<JsonNode> consumer) {
         allSubscribers.add(new JsonUpdateSubscriber(JsonPath.parse(query), consumer));
@@ -115,14 +160,10 @@ class StreamingJsonDB implements JsonDB {
 
     @Override
     public Stream<JsonNode> select(String path) {
-        var generation = singletonList(root(true));
-        for (JsonSelectorSegment segment : JsonPath.parse(path)) {
-            generation = switch (segment.type()) {
-                case CHILD -> generation.stream().flatMap(JsonNode::children).filter(segment).collect(toList());
-                case DESCENDANT -> generation.stream().flatMap(JsonNode::descendents).filter(segment).collect(toList());
-            };
-        }
-        return generation.stream();
+        var selector = JsonPath.parse(path);
+        if (cacheRoot)
+            return Selection.select(cachedRoot(), singletonList(selector));
+        return parser.select(source.get(), selector);
     }
 
     @Override
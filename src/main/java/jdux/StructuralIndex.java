@@ -0,0 +1,119 @@
+package jdux;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Matching close for each bracket and brace in a UTF-8 buffer, ignoring those inside strings.  Built in a single
+ * pass on first use, so that skipping an object or array is a lookup of its matching bracket rather than a parse
+ * of everything inside it.  Only open brackets are stored, two ints each: their position and that of their close.
+ */
+final class StructuralIndex {
+
+    private final ByteBuffer buffer;
+
+    private volatile int[] opens;
+    private int[] closes;
+    private int size;
+
+    StructuralIndex(ByteBuffer buffer) {
+        this.buffer = buffer.duplicate();
+    }
+
+    /**
+     * Find the matching close bracket for an open bracket.
+     * @param position index of an open bracket or brace in the buffer
+     * @return index of its matching close, or -1 if unmatched
+     */
+    int closingOf(int position) {
+        if (opens == null)
+            build();
+        final int i = Arrays.binarySearch(opens, 0, size, position);
+        return i < 0 ? -1 : closes[i];
+    }
+
+    /**
+     * Start of each element of the array opening at the given position.  Nested objects and arrays are passed
+     * over through their matching close, so only the array's own level is read.
+     * @return element positions, or null if the array is unmatched
+     */
+    long[] elementsOf(int open) {
+        final int close = closingOf(open);
+        if (close < 0)
+            return null;
+        long[] starts = new long[16];
+        int size = 0;
+        for (int i = skipWhitespace(open + 1, close); i < close; ) {
+            if (size == starts.length)
+                starts = Arrays.copyOf(starts, size * 2);
+            starts[size++] = i;
+            final int b = buffer.get(i);
+            if (b == '{' || b == '[')
+                i = closingOf(i) + 1;
+            else if (b == '"' || b == '\'')
+                i = endOfString(i, close) + 1;
+            else {
+                while (i < close && buffer.get(i) != ',' && !isWhitespace(buffer.get(i)))
+                    i++;
+            }
+            i = skipWhitespace(i, close);
+            if (i < close && buffer.get(i) == ',')
+                i = skipWhitespace(i + 1, close);
+        }
+        return Arrays.copyOf(starts, size);
+    }
+
+    private int endOfString(int quote, int limit) {
+        final int c = buffer.get(quote);
+        int i = quote + 1;
+        while (i < limit && buffer.get(i) != c)
+            i += buffer.get(i) == '\\' ? 2 : 1;
+        return i;
+    }
+
+    private int skipWhitespace(int i, int limit) {
+        while (i < limit && isWhitespace(buffer.get(i)))
+            i++;
+        return i;
+    }
+
+    private static boolean isWhitespace(int b) {
+        return b == ' ' || b == '\n' || b == '\r' || b == '\t';
+    }
+
+    private synchronized void build() {
+        if (opens != null)
+            return;
+        final int limit = buffer.limit();
+        int[] opens = new int[Math.max(16, Math.min(limit / 32, 1 << 20))], closes = new int[opens.length];
+        int[] open = new int[16];
+        int size = 0, depth = 0, quote = 0;
+        for (int i = 0; i < limit; i++) {
+            final int b = buffer.get(i);
+            if (quote != 0) {
+                if (b == '\\')
+                    i++;
+                else if (b == quote)
+                    quote = 0;
+            } else if (b == '"' || b == '\'') {
+                quote = b;
+            } else if (b == '{' || b == '[') {
+                if (size == opens.length) {
+                    opens = Arrays.copyOf(opens, size * 2);
+                    closes = Arrays.copyOf(closes, size * 2);
+                }
+                if (depth == open.length)
+                    open = Arrays.copyOf(open, depth * 2);
+                opens[size] = i;
+                closes[size] = -1;
+                open[depth++] = size++;
+            } else if ((b == '}' || b == ']') && depth > 0) {
+                closes[open[--depth]] = i;
+            }
+        }
+        this.closes = closes;
+        this.size = size;
+        this.opens = opens;
+    }
+
+}
@@ -0,0 +1,106 @@
+package jdux;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntPredicate;
+
+/**
+ * Canonical strings for object keys.  Keys are hashed while their characters are read, and the shared instance is
+ * returned when one exists, so repeated keys don't allocate.  The table is bounded: once full, new keys are still
+ * returned but no longer remembered.
+ */
+public final class SymbolTable {
+
+    private static final int MAX_PROBES = 8, MAX_SYMBOL_LENGTH = 64;
+    private static final ThreadLocal<char[]> SCRATCH = ThreadLocal.withInitial(() -> new char[MAX_SYMBOL_LENGTH]);
+
+    private final String[] symbols;
+    private final int mask, maxSize;
+    private final AtomicInteger size = new AtomicInteger();
+    private final LongAdder hits = new LongAdder(), misses = new LongAdder();
+
+    SymbolTable() {
+        this(2048);
+    }
+
+    /**
+     * @param maxSize the most symbols to remember
+     */
+    SymbolTable(int maxSize) {
+        this.symbols = new String[Integer.highestOneBit(Math.max(maxSize, 8) * 2 - 1) * 2];
+        this.mask = symbols.length - 1;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Read characters while the predicate holds and return the canonical string for them.
+     */
+    String read(TextInput text, IntPredicate p) {
+        char[] chars = SCRATCH.get();
+        int length = 0, hash = 0;
+        while (text.hasNext() && p.test(text.peek())) {
+            final char c = (char) text.read();
+            if (length == chars.length)
+                return new StringBuilder(length * 2).append(chars, 0, length).append(c).append(text.readWhile(p)).toString();
+            chars[length++] = c;
+            hash = 31 * hash + c;
+        }
+        return intern(chars, length, hash);
+    }
+
+    private String intern(char[] chars, int length, int hash) {
+        final int start = (hash ^ (hash >>> 16)) & mask;
+        int empty = -1;
+        for (int probe = 0; probe < MAX_PROBES; probe++) {
+            final int i = (start + probe) & mask;
+            final String symbol = symbols[i];
+            if (symbol == null) {
+                empty = i;
+                break;
+            }
+            if (symbol.hashCode() == hash && matches(symbol, chars, length)) {
+                hits.increment();
+                return symbol;
+            }
+        }
+        misses.increment();
+        final String symbol = new String(chars, 0, length);
+        if (empty >= 0 && size.get() < maxSize) {
+            symbols[empty] = symbol;
+            size.incrementAndGet();
+        }
+        return symbol;
+    }
+
+    private static boolean matches(String symbol, char[] chars, int length) {
+        if (symbol.length() != length)
+            return false;
+        for (int i = 0; i < length; i++) {
+            if (symbol.charAt(i) != chars[i])
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Number of symbols remembered.
+     */
+    public int size() {
+        return size.get();
+    }
+
+    /**
+     * Most symbols that will be remembered.
+     */
+    public int capacity() {
+        return maxSize;
+    }
+
+    /**
+     * Lookups that found an existing symbol versus those that allocated a new string.
+     */
+    public CacheStats stats() {
+        return new CacheStats(hits.sum(), misses.sum());
+    }
+
+}
@@ -1,19 +1,28 @@
 package jdux;
 
+import java.io.IOException;
 import java.io.StringReader;
+import java.nio.ByteBuffer;
 import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
 import java.util.function.IntPredicate;
 
 import static java.lang.Character.toLowerCase;
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+import static java.nio.file.StandardOpenOption.READ;
 
 /**
  * Simplifies reading in text data.  Allows for peeking and skipping.
  *
- * Note: it is recommended to wrap Readers and close upon end of use so that CharBuffers may be reused.
+ * Note: it is recommended to wrap Readers and close upon end of use so that CharBuffers may be reused.  The buffer
+ * pools are shared between threads and bounded, so unclosed inputs only cost an allocation.
  */
 public interface TextInput extends AutoCloseable {
 
-    Pool<CharBuffer> BUFFER_POOL = Pool.create(() -> CharBuffer.allocate(1024));
+    Pool<CharBuffer> BUFFER_POOL = Pool.sized(CharBuffer::allocate, CharBuffer::capacity, 64, 1024, 8192, 65536);
+    Pool<ByteBuffer> BYTE_BUFFER_POOL = Pool.sized(ByteBuffer::allocate, ByteBuffer::capacity, 64, 8192, 65536, 1 << 20);
 
     static TextInput wrap(String str) {
         return wrap(new StringReader(str));
@@ -23,6 +32,38 @@ public interface TextInput extends AutoCloseable {
         final CharBuffer buffer = BUFFER_POOL.get();
         return new BasicTextInput(in, buffer, () -> BUFFER_POOL.put(buffer));
     }
+    /**
+     * Read UTF-8 bytes from the given buffer, between its position and limit.
+     */
+    static TextInput wrap(ByteBuffer bytes) {
+        return new Utf8TextInput(bytes.slice());
+    }
+
+    /**
+     * Read UTF-8 bytes from the given channel.
+     */
+    static TextInput wrap(ReadableByteChannel in) {
+        final ByteBuffer buffer = BYTE_BUFFER_POOL.get();
+        return new Utf8TextInput(in, buffer.clear(), () -> BYTE_BUFFER_POOL.put(buffer));
+    }
+
+    /**
+     * Memory-map the given UTF-8 file.  The resulting input is navigable, unless the file is too large to map
+     * in which case it is streamed instead.
+     */
+    static TextInput map(Path file) {
+        try {
+            final FileChannel channel = FileChannel.open(file, READ);
+            if (channel.size() > Integer.MAX_VALUE)
+                return wrap(channel);
+            try (channel) {
+                return new Utf8TextInput(channel.map(READ_ONLY, 0, channel.size()));
+            }
+        } catch (IOException e) {
+            throw new IORuntimeException(e);
+        }
+    }
+
     static TextInput wrap(Readable in, long position) {
         final CharBuffer buffer = BUFFER_POOL.get();
         return new BasicTextInput(in, buffer, () -> BUFFER_POOL.put(buffer), position);
@@ -57,6 +98,45 @@ public interface TextInput extends AutoCloseable {
             sb.append((char)(peek() == escape && hasNext() ? skip().read() : read()));
         return sb.toString();
     }
+    /**
+     * Read the contents of a quoted string, resolving escape sequences.  Stops before the closing quote.
+     */
+    default String readQuoted(char quote) {
+        final StringBuilder sb = new StringBuilder();
+        while (hasNext() && peek() != quote) {
+            int c = read();
+            if (c == '\\' && hasNext()) {
+                c = read();
+                switch (c) {
+                    case '"', '\'', '\\', '/' -> sb.append((char) c);
+                    case 'b' -> sb.append('\b');
+                    case 'f' -> sb.append('\f');
+                    case 'n' -> sb.append('\n');
+                    case 'r' -> sb.append('\r');
+                    case 't' -> sb.append('\t');
+                    case 'u' -> sb.appendCodePoint(Integer.parseInt(read(4), 16));
+                    default -> sb.append('\\').append((char) c);
+                }
+            } else {
+                sb.append((char) c);
+            }
+        }
+        return sb.toString();
+    }
+    /**
+     * Read the contents of a quoted string as-is, leaving escape sequences in place.  Stops before the closing
+     * quote.
+     */
+    default CharSequence readRaw(char quote) {
+        final StringBuilder sb = new StringBuilder();
+        while (hasNext() && peek() != quote) {
+            final int c = read();
+            sb.append((char) c);
+            if (c == '\\' && hasNext())
+                sb.append((char) read());
+        }
+        return sb.toString();
+    }
     default String readWhile(IntPredicate p) {
         final StringBuilder sb = new StringBuilder();
         while (hasNext() && p.test(peek()))
@@ -109,6 +189,28 @@ public interface TextInput extends AutoCloseable {
             read();
         return this;
     }
+    /**
+     * Move past the object or array starting at the current position without parsing its contents.
+     */
+    default TextInput skipStructure() {
+        int depth = 0, quote = 0;
+        do {
+            final int c = read();
+            if (quote != 0) {
+                if (c == '\\')
+                    read();
+                else if (c == quote)
+                    quote = 0;
+            } else if (c == '"' || c == '\'') {
+                quote = c;
+            } else if (c == '{' || c == '[') {
+                depth++;
+            } else if (c == '}' || c == ']') {
+                depth--;
+            }
+        } while (depth > 0 && hasNext());
+        return this;
+    }
     default TextInput skip(char ch) {
         if (hasNext() && read() != ch)
             throw new IllegalStateException("Expected \""+ch+"\".");
@@ -131,5 +233,32 @@ public interface TextInput extends AutoCloseable {
 
     TextInput index(long index);
 
+    /**
+     * Whether the input can be repositioned using index(long).
+     */
+    default boolean isNavigable() {
+        return false;
+    }
+
+    /**
+     * Append the source text between the given indexes, for navigable inputs.
+     */
+    default void copyTo(long start, long end, Appendable out) {
+        final TextInput text = duplicate().index(start);
+        try {
+            while (text.index() < end)
+                out.append((char) text.read());
+        } catch (IOException e) {
+            throw new IORuntimeException(e);
+        }
+    }
+
+    /**
+     * Create an independent view of the same source at the current position, for navigable inputs.
+     */
+    default TextInput duplicate() {
+        throw new UnsupportedOperationException("Source for text input is not navigable!");
+    }
+
     boolean hasNext();
 }
@@ -0,0 +1,31 @@
+package jdux;
+
+import java.util.function.Function;
+
+/**
+ * Conversion between a Java type and JSON nodes, for types that are not records, collections or primitives.
+ * Register with {@link JDux#register(Class, TypeCodec)}.
+ */
+public interface TypeCodec<T> {
+
+    T decode(JsonNode node);
+
+    JsonNode encode(T value);
+
+    /**
+     * Codec for a type written as a JSON string, such as a UUID or custom identifier.
+     */
+    static <T> TypeCodec<T> ofString(Function<String, T> parse, Function<T, String> format) {
+        return new TypeCodec<>() {
+            @Override
+            public T decode(JsonNode node) {
+                return node instanceof JsonNode.NullNode ? null : parse.apply(node.asA(String.class));
+            }
+            @Override
+            public JsonNode encode(T value) {
+                return new JsonNode.StringNode(format.apply(value));
+            }
+        };
+    }
+
+}
@@ -0,0 +1,118 @@
+package jdux;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAccessor;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.lang.invoke.MethodType.methodType;
+
+/**
+ * Registry of codecs for value types.  Codecs registered by users take precedence; otherwise enums and time types
+ * get a codec resolved once per class, so that conversions don't repeat lookups.
+ */
+final class TypeCodecs {
+
+    private static final Map<Class<?>, TypeCodec<?>> REGISTERED = new ConcurrentHashMap<>();
+
+    private static final TypeCodec<?> NONE = TypeCodec.ofString(s -> null, v -> null);
+
+    private static final ClassValue<TypeCodec<?>> RESOLVED = new ClassValue<>() {
+        @Override
+        protected TypeCodec<?> computeValue(Class<?> type) {
+            if (type.isEnum())
+                return enumCodec(type);
+            if (TemporalAccessor.class.isAssignableFrom(type))
+                return timeCodec(type);
+            return NONE;
+        }
+    };
+
+    static {
+        register(UUID.class, TypeCodec.ofString(UUID::fromString, UUID::toString));
+    }
+
+    private TypeCodecs() {
+        throw new AssertionError("This is a static utility class.");
+    }
+
+    static <T> void register(Class<T> type, TypeCodec<T> codec) {
+        REGISTERED.put(type, codec);
+    }
+
+    /**
+     * Codec for the given type, or null if it has none.
+     */
+    @SuppressWarnings("unchecked")
+    static <T> TypeCodec<T> get(Class<T> type) {
+        final TypeCodec<?> registered = REGISTERED.get(type);
+        if (registered != null)
+            return (TypeCodec<T>) registered;
+        final TypeCodec<?> resolved = RESOLVED.get(type);
+        return resolved == NONE ? null : (TypeCodec<T>) resolved;
+    }
+
+    /**
+     * Codec registered by users for the given type, or null.
+     */
+    @SuppressWarnings("unchecked")
+    static <T> TypeCodec<T> registered(Class<T> type) {
+        return (TypeCodec<T>) REGISTERED.get(type);
+    }
+
+    /**
+     * Class for a value type, taking the raw class of a parameterized type.
+     */
+    static Class<?> rawClass(Type type) {
+        if (type instanceof Class<?> c)
+            return c;
+        if (type instanceof ParameterizedType pt && pt.getRawType() instanceof Class<?> c)
+            return c;
+        throw new JsonReflectException("Unsupported type " + type.getTypeName());
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static TypeCodec<?> enumCodec(Class<?> type) {
+        final Map<String, Enum<?>> constants = new HashMap<>();
+        for (Object constant : type.getEnumConstants())
+            constants.put(((Enum) constant).name(), (Enum) constant);
+        return TypeCodec.<Enum>ofString(name -> {
+            final Enum<?> constant = constants.get(name);
+            if (constant == null)
+                throw new JsonReflectException("No constant " + name + " in " + type.getName());
+            return constant;
+        }, Enum::name);
+    }
+
+    /**
+     * Times are written as ISO instants, and read back at the system time zone through the type's from method.
+     */
+    private static TypeCodec<?> timeCodec(Class<?> type) {
+        if (type == Instant.class)
+            return TypeCodec.ofString(Instant::parse, DateTimeFormatter.ISO_INSTANT::format);
+        final MethodHandle from;
+        try {
+            from = MethodHandles.publicLookup()
+                .findStatic(type, "from", methodType(type, TemporalAccessor.class))
+                .asType(methodType(Object.class, TemporalAccessor.class));
+        } catch (ReflectiveOperationException e) {
+            return NONE;
+        }
+        return TypeCodec.<Object>ofString(text -> {
+            try {
+                return from.invokeExact((TemporalAccessor) Instant.parse(text).atZone(ZoneId.systemDefault()));
+            } catch (Throwable e) {
+                throw new JsonReflectException(e);
+            }
+        }, time -> DateTimeFormatter.ISO_INSTANT.format((TemporalAccessor) time));
+    }
+
+}
@@ -0,0 +1,113 @@
+package jdux;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static java.util.stream.Collectors.toUnmodifiableList;
+import static java.util.stream.Collectors.toUnmodifiableSet;
+import static jdux.JsonToken.*;
+
+/**
+ * Reads tokens straight into typed values, without building nodes.  Records are created through their canonical
+ * constructor using cached RecordMetadata, and fields the record does not declare are skipped.
+ */
+final class TypedReader {
+
+    private TypedReader() {
+        throw new AssertionError("This is a static utility class.");
+    }
+
+    /**
+     * Read the next value from the reader as the given type.
+     */
+    static Object read(JsonReader reader, Type type) {
+        final JsonToken token = reader.next();
+        if (token == END_DOCUMENT)
+            return null;
+        return value(reader, token, type);
+    }
+
+    private static Object value(JsonReader reader, JsonToken token, Type type) {
+        final Class<?> raw = TypeCodecs.rawClass(type);
+        return switch (token) {
+            case NULL -> raw.isPrimitive() ? defaultValue(raw) : null;
+            case TRUE, FALSE -> reader.getBoolean();
+            case NUMBER -> number(reader, raw);
+            case STRING -> string(reader, raw);
+            case START_ARRAY -> array(reader, type, raw);
+            case START_OBJECT -> object(reader, type, raw);
+            default -> throw new JsonReflectException("Unexpected " + token + " for " + type.getTypeName());
+        };
+    }
+
+    private static Object number(JsonReader reader, Class<?> type) {
+        if (type == int.class || type == Integer.class)
+            return reader.getInt();
+        if (type == long.class || type == Long.class)
+            return reader.getLong();
+        if (type == double.class || type == Double.class)
+            return reader.getDouble();
+        return reader.numberNode().asA(type);
+    }
+
+    private static Object string(JsonReader reader, Class<?> type) {
+        if (type == String.class || type == Object.class || type == CharSequence.class)
+            return reader.getString();
+        final TypeCodec<?> codec = TypeCodecs.get(type);
+        if (codec == null)
+            throw new JsonReflectException("Cannot convert string to " + type.getName());
+        return codec.decode(new JsonNode.StringNode(reader.getString()));
+    }
+
+    private static Object array(JsonReader reader, Type type, Class<?> raw) {
+        if (PrimitiveArrays.isPrimitiveArray(raw))
+            return PrimitiveArrays.read(raw.getComponentType(), reader);
+        final Type elementType;
+        if (raw.isArray())
+            elementType = raw.getComponentType();
+        else if (Collection.class.isAssignableFrom(raw) && type instanceof ParameterizedType pt)
+            elementType = pt.getActualTypeArguments()[0];
+        else
+            throw new JsonReflectException("Expected array or collection for array but was " + type.getTypeName());
+        final List<Object> elements = new ArrayList<>();
+        for (JsonToken token = reader.next(); token != END_ARRAY; token = reader.next())
+            elements.add(value(reader, token, elementType));
+        if (raw.isArray()) {
+            final Object array = Array.newInstance(raw.getComponentType(), elements.size());
+            for (int i = 0; i < elements.size(); i++)
+                Array.set(array, i, elements.get(i));
+            return array;
+        }
+        return switch (raw.getName()) {
+            case "java.util.List", "java.util.Collection" -> elements.stream().collect(toUnmodifiableList());
+            case "java.util.Set" -> elements.stream().collect(toUnmodifiableSet());
+            default -> throw new JsonReflectException("Unrecognized collection type " + type.getTypeName());
+        };
+    }
+
+    private static Object object(JsonReader reader, Type type, Class<?> raw) {
+        final RecordCodec<?> codec = RecordCodecs.get(raw);
+        if (codec != null)
+            return codec.read(reader);
+        final RecordMetadata record = RecordMetadata.of(raw);
+        final Object[] args = new Object[record.size()];
+        for (JsonToken token = reader.next(); token != END_OBJECT; token = reader.next()) {
+            final int index = record.indexOf(reader.currentName());
+            final JsonToken value = reader.next();
+            if (index < 0)
+                reader.skipChildren();
+            else
+                args[index] = value(reader, value, record.type(index, type));
+        }
+        return record.create(args);
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        return Array.get(Array.newInstance(type, 1), 0);
+    }
+
+}
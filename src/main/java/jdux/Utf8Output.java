@@ -0,0 +1,238 @@
+package jdux;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Appendable that encodes UTF-8 straight into pooled byte buffers, copying runs of ASCII without going through a
+ * charset encoder.  Filled buffers are held back and written to the channel together in one gathering write.
+ */
+class Utf8Output implements Appendable, Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 16, MAX_PENDING = 16;
+
+    private final WritableByteChannel channel;
+    private final ByteBuffer[] pending = new ByteBuffer[MAX_PENDING];
+    private int pendingCount;
+
+    private ByteBuffer current;
+    private byte[] bytes;
+    private int position, limit;
+    private char highSurrogate;
+
+    Utf8Output(WritableByteChannel channel) {
+        this.channel = channel;
+    }
+
+    @Override
+    public Utf8Output append(char c) {
+        if (c < 0x80 && highSurrogate == 0) {
+            if (position == limit)
+                next();
+            bytes[position++] = (byte) c;
+        } else {
+            encode(c);
+        }
+        return this;
+    }
+
+    @Override
+    public Utf8Output append(CharSequence text) {
+        return append(text, 0, text.length());
+    }
+
+    @Override
+    public Utf8Output append(CharSequence text, int start, int end) {
+        int i = start;
+        while (i < end) {
+            if (highSurrogate != 0) {
+                encode(text.charAt(i++));
+                continue;
+            }
+            if (position == limit)
+                next();
+            final int stop = Math.min(end, i + limit - position);
+            char c;
+            while (i < stop && (c = text.charAt(i)) < 0x80) {
+                bytes[position++] = (byte) c;
+                i++;
+            }
+            if (i < stop)
+                encode(text.charAt(i++));
+        }
+        return this;
+    }
+
+    /**
+     * Append bytes that are already UTF-8.  Large spans go straight to the channel rather than through the buffers.
+     */
+    void write(ByteBuffer utf8) {
+        if (utf8.remaining() >= BUFFER_SIZE) {
+            queue();
+            write();
+            try {
+                while (utf8.hasRemaining())
+                    channel.write(utf8);
+            } catch (IOException e) {
+                throw new IORuntimeException(e);
+            }
+            return;
+        }
+        while (utf8.hasRemaining()) {
+            if (position == limit)
+                next();
+            final int count = Math.min(utf8.remaining(), limit - position);
+            utf8.get(bytes, position, count);
+            position += count;
+        }
+    }
+
+    /**
+     * Write the digits of a long straight into the buffer.
+     */
+    void appendLong(long value) {
+        if (limit - position < 20)
+            next();
+        int length = value < 0 ? 2 : 1;
+        for (long remaining = value / 10; remaining != 0; remaining /= 10)
+            length++;
+        int i = position + length;
+        long remaining = value;
+        do {
+            bytes[--i] = (byte) ('0' + Math.abs(remaining % 10));
+            remaining /= 10;
+        } while (remaining != 0);
+        if (value < 0)
+            bytes[--i] = '-';
+        position += length;
+    }
+
+    /**
+     * Encode a non-ASCII character, pairing surrogates across calls.  Unpaired surrogates are written as '?'.
+     */
+    private void encode(char c) {
+        if (limit - position < 4)
+            next();
+        if (highSurrogate != 0) {
+            final char high = highSurrogate;
+            highSurrogate = 0;
+            if (!Character.isLowSurrogate(c)) {
+                bytes[position++] = '?';
+                append(c);
+                return;
+            }
+            final int cp = Character.toCodePoint(high, c);
+            bytes[position++] = (byte) (0xF0 | cp >> 18);
+            bytes[position++] = (byte) (0x80 | cp >> 12 & 0x3F);
+            bytes[position++] = (byte) (0x80 | cp >> 6 & 0x3F);
+            bytes[position++] = (byte) (0x80 | cp & 0x3F);
+        } else if (c < 0x80) {
+            bytes[position++] = (byte) c;
+        } else if (c < 0x800) {
+            bytes[position++] = (byte) (0xC0 | c >> 6);
+            bytes[position++] = (byte) (0x80 | c & 0x3F);
+        } else if (Character.isHighSurrogate(c)) {
+            highSurrogate = c;
+        } else if (Character.isLowSurrogate(c)) {
+            bytes[position++] = '?';
+        } else {
+            bytes[position++] = (byte) (0xE0 | c >> 12);
+            bytes[position++] = (byte) (0x80 | c >> 6 & 0x3F);
+            bytes[position++] = (byte) (0x80 | c & 0x3F);
+        }
+    }
+
+    /**
+     * Move on to a fresh buffer, queueing the current one.
+     */
+    private void next() {
+        queue();
+        current = TextInput.BYTE_BUFFER_POOL.get(BUFFER_SIZE).clear();
+        bytes = current.array();
+        position = current.arrayOffset();
+        limit = position + current.capacity();
+    }
+
+    private void queue() {
+        if (current == null)
+            return;
+        current.limit(position - current.arrayOffset()).position(0);
+        pending[pendingCount++] = current;
+        current = null;
+        bytes = null;
+        position = limit = 0;
+        if (pendingCount == MAX_PENDING)
+            write();
+    }
+
+    /**
+     * Write everything appended so far to the channel.
+     */
+    void flush() {
+        if (highSurrogate != 0) {
+            highSurrogate = 0;
+            append('?');
+        }
+        queue();
+        write();
+    }
+
+    private void write() {
+        if (pendingCount == 0)
+            return;
+        try {
+            if (channel instanceof GatheringByteChannel gathering) {
+                while (pending[pendingCount - 1].hasRemaining())
+                    gathering.write(pending, 0, pendingCount);
+            } else {
+                for (int i = 0; i < pendingCount; i++) {
+                    while (pending[i].hasRemaining())
+                        channel.write(pending[i]);
+                }
+            }
+        } catch (IOException e) {
+            throw new IORuntimeException(e);
+        } finally {
+            release();
+        }
+    }
+
+    private void release() {
+        for (int i = 0; i < pendingCount; i++) {
+            TextInput.BYTE_BUFFER_POOL.put(pending[i]);
+            pending[i] = null;
+        }
+        pendingCount = 0;
+    }
+
+    /**
+     * Close the channel, dropping anything not yet written.
+     */
+    void abort() throws IOException {
+        if (current != null) {
+            TextInput.BYTE_BUFFER_POOL.put(current);
+            current = null;
+            bytes = null;
+            position = limit = 0;
+        }
+        release();
+        highSurrogate = 0;
+        channel.close();
+    }
+
+    /**
+     * Flush and close the channel.
+     */
+    @Override
+    public void close() {
+        try (channel) {
+            flush();
+        } catch (IOException e) {
+            throw new IORuntimeException(e);
+        }
+    }
+
+}
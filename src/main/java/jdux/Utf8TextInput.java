@@ -0,0 +1,391 @@
+package jdux;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.function.IntPredicate;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Text input over raw UTF-8 bytes.  Structural characters are read straight from the byte buffer, and multi-byte
+ * sequences are only decoded when a character is actually requested.
+ *
+ * When no channel is supplied, the buffer is expected to hold the whole input.
+ */
+class Utf8TextInput implements TextInput {
+
+    private static final int MAX_SEQUENCE_LENGTH = 4;
+
+    private final ReadableByteChannel channel;
+    private final ByteBuffer buffer;
+    private final Runnable onClose;
+    private final StructuralIndex structure;
+
+    private long bytesRead;
+    private int pendingLowSurrogate = -1;
+    private boolean closed;
+
+    Utf8TextInput(ByteBuffer buffer) {
+        this(buffer, new StructuralIndex(buffer));
+    }
+
+    private Utf8TextInput(ByteBuffer buffer, StructuralIndex structure) {
+        this.channel = null;
+        this.buffer = buffer;
+        this.onClose = () -> {};
+        this.structure = structure;
+        this.bytesRead = buffer.limit();
+    }
+
+    Utf8TextInput(ReadableByteChannel channel, ByteBuffer buffer, Runnable onClose) {
+        this.channel = channel;
+        this.buffer = buffer;
+        this.onClose = onClose;
+        this.structure = null;
+        buffer.limit(0);
+    }
+
+    @Override
+    public int read() {
+        if (pendingLowSurrogate != -1) {
+            final int low = pendingLowSurrogate;
+            pendingLowSurrogate = -1;
+            return low;
+        }
+        final int b = buffer.get() & 0xFF;
+        if (b < 0x80)
+            return b;
+        final int codePoint = decode(b);
+        if (Character.isSupplementaryCodePoint(codePoint)) {
+            pendingLowSurrogate = Character.lowSurrogate(codePoint);
+            return Character.highSurrogate(codePoint);
+        }
+        return codePoint;
+    }
+
+    @Override
+    public int peek() {
+        if (pendingLowSurrogate != -1)
+            return pendingLowSurrogate;
+        final int b = buffer.get(buffer.position()) & 0xFF;
+        if (b < 0x80)
+            return b;
+        if (sequenceLength(b) > buffer.remaining())
+            fill(MAX_SEQUENCE_LENGTH);
+        buffer.mark();
+        try {
+            buffer.get();
+            final int codePoint = decode(b);
+            return Character.isSupplementaryCodePoint(codePoint) ? Character.highSurrogate(codePoint) : codePoint;
+        } finally {
+            buffer.reset();
+        }
+    }
+
+    /**
+     * Decode the remainder of a multi-byte sequence, given its leading byte.
+     */
+    private int decode(int lead) {
+        final int length = sequenceLength(lead);
+        if (length == 1)
+            throw malformed("Malformed UTF-8 input");
+        if (buffer.remaining() < length - 1 && !fill(length - 1))
+            throw malformed("Truncated UTF-8 sequence at end of input");
+        int codePoint = lead & (0xFF >> (length + 1));
+        for (int i = 1; i < length; i++)
+            codePoint = (codePoint << 6) | (buffer.get() & 0x3F);
+        return codePoint;
+    }
+
+    /**
+     * Error for the sequence whose leading byte was just read, positioned at that byte.
+     */
+    private JsonParseException malformed(String message) {
+        buffer.position(buffer.position() - 1);
+        return new JsonParseException(message, this);
+    }
+
+    /**
+     * Rest of the buffered line, for error messages.  Malformed bytes are replaced rather than rejected.
+     */
+    @Override
+    public String readLine() {
+        final int start = buffer.position();
+        int end = start;
+        while (end < buffer.limit() && buffer.get(end) != '\n')
+            end++;
+        buffer.position(Math.min(end + 1, buffer.limit()));
+        pendingLowSurrogate = -1;
+        return UTF_8.decode(buffer.duplicate().limit(end).position(start)).toString();
+    }
+
+    private static int sequenceLength(int lead) {
+        return lead >= 0xF0 ? 4 : lead >= 0xE0 ? 3 : lead >= 0xC0 ? 2 : 1;
+    }
+
+    /**
+     * Whether the next character can be decoded without reading from the channel.
+     */
+    private boolean buffered() {
+        return pendingLowSurrogate != -1
+            || buffer.hasRemaining() && sequenceLength(buffer.get(buffer.position()) & 0xFF) <= buffer.remaining();
+    }
+
+    @Override
+    public String read(int nchars) {
+        final StringBuilder sb = new StringBuilder(nchars);
+        for (int i = 0; i < nchars; i++) {
+            if (!hasNext())
+                throw new IllegalArgumentException("Could not read " + nchars + ", reached end of input.");
+            sb.append((char) read());
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public String peek(int length) {
+        fill(length * MAX_SEQUENCE_LENGTH);
+        final int pending = pendingLowSurrogate;
+        buffer.mark();
+        try {
+            final StringBuilder sb = new StringBuilder(length);
+            while (sb.length() < length && buffered())
+                sb.append((char) read());
+            return sb.toString();
+        } finally {
+            buffer.reset();
+            pendingLowSurrogate = pending;
+        }
+    }
+
+    @Override
+    public String peekWhile(IntPredicate p) {
+        final int pending = pendingLowSurrogate;
+        buffer.mark();
+        try {
+            final StringBuilder sb = new StringBuilder();
+            while (buffered() && p.test(peek()))
+                sb.append((char) read());
+            return sb.toString();
+        } finally {
+            buffer.reset();
+            pendingLowSurrogate = pending;
+        }
+    }
+
+    /**
+     * Bulk decodes the string when the closing quote is already buffered, otherwise falls back to reading
+     * character by character.
+     */
+    @Override
+    public String readQuoted(char quote) {
+        if (pendingLowSurrogate != -1 || quote > 0x7F)
+            return TextInput.super.readQuoted(quote);
+        final int start = buffer.position(), limit = buffer.limit();
+        int i = start;
+        for (int b; i < limit && (b = buffer.get(i)) != quote && b != '\\'; i++);
+        if (i == limit)
+            return TextInput.super.readQuoted(quote);
+        final String prefix = decode(start, i);
+        if (buffer.get(i) == quote)
+            return prefix;
+        return prefix + TextInput.super.readQuoted(quote);
+    }
+
+    /**
+     * Returns a view of the string bytes when the whole input is buffered, so nothing is decoded or copied until
+     * the value is needed.
+     */
+    @Override
+    public CharSequence readRaw(char quote) {
+        if (!isNavigable() || pendingLowSurrogate != -1 || quote > 0x7F)
+            return TextInput.super.readRaw(quote);
+        final int start = buffer.position(), limit = buffer.limit();
+        boolean escaped = false;
+        int i = start;
+        for (int b; i < limit && (b = buffer.get(i)) != quote; i++) {
+            if (b == '\\') {
+                escaped = true;
+                i++;
+            }
+        }
+        i = Math.min(i, limit);
+        buffer.position(i);
+        return new Span(buffer.duplicate().position(start).limit(i).slice(), escaped);
+    }
+
+    private String decode(int start, int end) {
+        if (buffer.hasArray()) {
+            buffer.position(end);
+            return new String(buffer.array(), buffer.arrayOffset() + start, end - start, UTF_8);
+        }
+        final byte[] bytes = new byte[end - start];
+        buffer.get(bytes);
+        return new String(bytes, UTF_8);
+    }
+
+    /**
+     * Jumps straight to the matching bracket using the structural index, when the whole input is buffered.
+     */
+    @Override
+    public TextInput skipStructure() {
+        if (structure == null || pendingLowSurrogate != -1)
+            return TextInput.super.skipStructure();
+        final int close = structure.closingOf(buffer.position());
+        if (close < 0)
+            return TextInput.super.skipStructure();
+        buffer.position(close + 1);
+        return this;
+    }
+
+    /**
+     * Start of each element of the array opening at the given index, found through the structural index.
+     * @return element positions, or null if the input isn't fully buffered
+     */
+    long[] elementsOf(long open) {
+        return structure == null ? null : structure.elementsOf((int) open);
+    }
+
+    @Override
+    public boolean hasNext() {
+        return pendingLowSurrogate != -1 || buffer.hasRemaining() || fill(1);
+    }
+
+    /**
+     * Read from the channel until at least the given number of bytes are buffered, or input is exhausted.
+     */
+    private boolean fill(int n) {
+        if (channel == null)
+            return buffer.remaining() >= n;
+        try {
+            while (buffer.remaining() < n) {
+                buffer.compact();
+                final int count = channel.read(buffer);
+                buffer.flip();
+                if (count == -1)
+                    return false;
+                bytesRead += count;
+                if (buffer.limit() == buffer.capacity())
+                    return buffer.remaining() >= n;
+            }
+            return true;
+        } catch (IOException e) {
+            throw new IORuntimeException(e);
+        }
+    }
+
+    @Override
+    public long index() {
+        return bytesRead - buffer.remaining();
+    }
+
+    @Override
+    public TextInput index(long index) {
+        if (!isNavigable())
+            throw new UnsupportedOperationException("Source for text input is not navigable!");
+        buffer.position((int) index);
+        pendingLowSurrogate = -1;
+        return this;
+    }
+
+    @Override
+    public boolean isNavigable() {
+        return channel == null;
+    }
+
+    /**
+     * Copies the bytes as they are when writing UTF-8, otherwise decodes them.
+     */
+    @Override
+    public void copyTo(long start, long end, Appendable out) {
+        if (!isNavigable())
+            throw new UnsupportedOperationException("Source for text input is not navigable!");
+        final ByteBuffer span = buffer.duplicate().limit((int) end).position((int) start);
+        try {
+            if (out instanceof Utf8Output utf8)
+                utf8.write(span);
+            else
+                out.append(UTF_8.decode(span));
+        } catch (IOException e) {
+            throw new IORuntimeException(e);
+        }
+    }
+
+    @Override
+    public TextInput duplicate() {
+        if (!isNavigable())
+            throw new UnsupportedOperationException("Source for text input is not navigable!");
+        final Utf8TextInput copy = new Utf8TextInput(buffer.duplicate(), structure);
+        copy.pendingLowSurrogate = pendingLowSurrogate;
+        return copy;
+    }
+
+    @Override
+    public String toString() {
+        final ByteBuffer window = buffer.duplicate();
+        window.limit(Math.min(window.limit(), window.position() + 64));
+        return "..." + UTF_8.decode(window);
+    }
+
+    @Override
+    public void close() {
+        if (closed)
+            return;
+        closed = true;
+        onClose.run();
+        try {
+            if (channel != null)
+                channel.close();
+        } catch (IOException e) {
+            throw new IORuntimeException(e);
+        }
+    }
+
+    /**
+     * String contents as undecoded UTF-8 bytes.
+     */
+    static final class Span implements CharSequence {
+
+        private final ByteBuffer bytes;
+        private final boolean escaped;
+        private String decoded;
+
+        Span(ByteBuffer bytes, boolean escaped) {
+            this.bytes = bytes;
+            this.escaped = escaped;
+        }
+
+        ByteBuffer bytes() {
+            return bytes.duplicate();
+        }
+
+        boolean isEscaped() {
+            return escaped;
+        }
+
+        @Override
+        public int length() {
+            return toString().length();
+        }
+
+        @Override
+        public char charAt(int index) {
+            return toString().charAt(index);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return toString().subSequence(start, end);
+        }
+
+        @Override
+        public String toString() {
+            if (decoded == null)
+                decoded = UTF_8.decode(bytes.duplicate()).toString();
+            return decoded;
+        }
+
+    }
+
+}
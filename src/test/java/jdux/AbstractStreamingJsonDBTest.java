@@ -127,6 +127,14 @@ public abstract class AbstractStreamingJsonDBTest {
                 .collect(Collectors.joining(",")));
     }
 
+    @Test
+    public void selectPath() {
+        assertEquals("41,36",
+            db.select("friends..age").map(JsonNode::jsonString)
+                .collect(Collectors.joining(",")));
+        assertEquals("34", db.subject("user.age").get().jsonString());
+    }
+
     record TestUserRecord(String name, int age) {}
 
 }
@@ -0,0 +1,25 @@
+package jdux;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class CachedMemoryDBTest extends AbstractStreamingJsonDBTest {
+
+    @Override
+    protected JsonDB getDB() {
+        return JDux.memDB(1024 * 1024, true);
+    }
+
+    @Test
+    public void readsServedFromCache() {
+        db.select("..name").count();
+        db.root();
+        db.subject("user.name").get();
+        assertEquals(new CacheStats(2, 1), db.cacheStats());
+        db.update("user.name", "Spartacus");
+        assertEquals("\"Spartacus\"", db.subject("user.name").get().jsonString());
+        assertEquals(new CacheStats(3, 2), db.cacheStats());
+    }
+
+}
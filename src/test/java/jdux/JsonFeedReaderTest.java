@@ -0,0 +1,81 @@
+package jdux;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static jdux.JsonToken.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class JsonFeedReaderTest {
+
+    private final String inputJson = "{\"id\": 123, \"name\": \"B\\u00f6b \\\"Loblaw\\\"\", \"roles\": [1.5, true, null]}";
+
+    @Test
+    public void tokensAcrossChunks() {
+        final byte[] bytes = inputJson.getBytes(UTF_8);
+        var reader = JDux.feedReader();
+        List<JsonToken> tokens = new ArrayList<>();
+        List<String> values = new ArrayList<>();
+        for (byte b : bytes) {
+            reader.feed(ByteBuffer.wrap(new byte[] { b }));
+            readAvailable(reader, tokens, values);
+        }
+        reader.endOfInput();
+        readAvailable(reader, tokens, values);
+        assertEquals(List.of(
+            START_OBJECT, NAME, NUMBER, NAME, STRING, NAME, START_ARRAY, NUMBER, TRUE, NULL, END_ARRAY, END_OBJECT,
+            END_DOCUMENT
+        ), tokens);
+        assertEquals(List.of("id", "123", "name", "B\u00f6b \"Loblaw\"", "roles", "1.5"), values);
+    }
+
+    private void readAvailable(JsonFeedReader reader, List<JsonToken> tokens, List<String> values) {
+        for (var token = reader.next(); token != NOT_AVAILABLE; token = reader.next()) {
+            tokens.add(token);
+            if (token == NAME || token == STRING || token == NUMBER)
+                values.add(reader.getString());
+            if (token == END_DOCUMENT)
+                break;
+        }
+        assertTrue(reader.needsInput() || reader.current() == END_DOCUMENT);
+    }
+
+    @Test
+    public void nodesAsTheyComplete() {
+        var reader = JDux.feedReader();
+        assertNull(reader.feed("{\"a\": [1, 2").nextNode());
+        assertEquals("{\"a\":[1,2,3]}", new JsonWriter().toString(reader.feed(", 3]} {\"b\"").nextNode()));
+        assertNull(reader.nextNode());
+        assertEquals("{\"b\":true}", new JsonWriter().toString(reader.feed(": true}\n4").nextNode()));
+        assertNull(reader.nextNode());
+        assertEquals(4L, reader.endOfInput().nextNode().asA(Long.class).longValue());
+        assertNull(reader.nextNode());
+        assertEquals(END_DOCUMENT, reader.current());
+    }
+
+    @Test
+    public void nodesFedByteByByte() {
+        final byte[] bytes = (inputJson + " [{\"x\": {\"y\": []}}, \"z\"]").getBytes(UTF_8);
+        var reader = JDux.feedReader();
+        List<JsonNode> nodes = new ArrayList<>();
+        for (byte b : bytes) {
+            var node = reader.feed(ByteBuffer.wrap(new byte[] { b })).nextNode();
+            if (node != null)
+                nodes.add(node);
+        }
+        reader.endOfInput();
+        assertNull(reader.nextNode());
+        assertEquals(2, nodes.size());
+        var writer = new JsonWriter();
+        assertEquals(writer.toString(JDux.parse(inputJson)), writer.toString(nodes.get(0)));
+        assertEquals("B\u00f6b \"Loblaw\"", ((ObjectNode) nodes.get(0)).get("name").asA(String.class));
+        assertEquals("[{\"x\":{\"y\":[]}},\"z\"]", writer.toString(nodes.get(1)));
+    }
+
+}
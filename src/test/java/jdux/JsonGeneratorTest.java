@@ -0,0 +1,93 @@
+package jdux;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+
+public class JsonGeneratorTest {
+
+    @Test
+    public void writeTokens() {
+        final StringBuilder out = new StringBuilder();
+        new JsonWriter().generator(out)
+            .startObject()
+            .name("id").value(42)
+            .name("name").value("say \"hi\"")
+            .name("scores").startArray().value(1.5).value(true).nullValue().endArray()
+            .name("empty").startObject().endObject()
+            .endObject();
+        assertEquals("{\"id\":42,\"name\":\"say \\\"hi\\\"\",\"scores\":[1.5,true,null],\"empty\":{}}", out.toString());
+    }
+
+    @Test
+    public void prettyMatchesWriter() {
+        final JsonWriter writer = new JsonWriter(true, "  ");
+        final List<RoleRecord> roles = List.of(new RoleRecord(1, "admin"), new RoleRecord(2, "user"));
+        final StringBuilder out = new StringBuilder();
+        writer.generator(out).startObject().name("roles").array(roles.stream()).endObject();
+        final StringBuilder expected = new StringBuilder();
+        writer.write(JDux.parse("{\"roles\": [{\"id\": 1, \"name\": \"admin\"}, {\"id\": 2, \"name\": \"user\"}]}"), expected);
+        assertEquals(expected.toString(), out.toString());
+    }
+
+    @Test
+    public void streamRecordsToFile() throws IOException {
+        final Path file = Files.createTempFile("export", ".json");
+        try (JsonGenerator generator = JDux.generator(file)) {
+            generator.array(IntStream.range(0, 10000).mapToObj(i -> new RoleRecord(i, "Role " + i)));
+        }
+        final List<RoleRecord> roles = JDux.parse(file).children(RoleRecord.class).collect(Collectors.toList());
+        assertEquals(10000, roles.size());
+        assertEquals(new RoleRecord(9999, "Role 9999"), roles.get(9999));
+    }
+
+    @Test
+    public void nullReferencesWriteNull() {
+        final StringBuilder out = new StringBuilder();
+        new JsonGenerator(out).startArray()
+            .value((String) null).value((JsonNode) null).value((Object) null).nullValue()
+            .endArray();
+        assertEquals("[null,null,null,null]", out.toString());
+    }
+
+    @Test
+    public void nonFiniteNumbersRejected() {
+        final JsonGenerator generator = new JsonGenerator(new StringBuilder()).startArray();
+        for (double value : new double[] { Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY }) {
+            try {
+                generator.value(value);
+                throw new AssertionError("Expected " + value + " to be rejected");
+            } catch (IllegalArgumentException e) {
+                assertEquals("Cannot write " + value + " as JSON", e.getMessage());
+            }
+        }
+        generator.value(0.5).endArray();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void valueWithoutName() {
+        new JsonGenerator(new StringBuilder()).startObject().value(1);
+    }
+
+    @Test
+    public void incompleteFileIsDiscarded() throws IOException {
+        final Path dir = Files.createTempDirectory("export");
+        final Path file = Files.writeString(dir.resolve("roles.json"), "[]");
+        try (JsonGenerator generator = JDux.generator(file)) {
+            generator.startArray().value(new RoleRecord(1, "admin"));
+        }
+        assertEquals("[]", Files.readString(file));
+        try (Stream<Path> files = Files.list(dir)) {
+            assertEquals(List.of(file), files.collect(Collectors.toList()));
+        }
+    }
+
+}
@@ -0,0 +1,56 @@
+package jdux;
+
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+public class JsonLinesTest {
+
+    private final String inputJson = IntStream.range(0, 1000)
+        .mapToObj(i -> "{\"id\": " + i + ", \"name\": \"Role " + i + "\"}" + (i % 10 == 0 ? "\n" : ""))
+        .collect(Collectors.joining("\n", "", "\n"));
+
+    @Test
+    public void readLines() {
+        final List<String> lines = JDux.parseLines(new StringReader("{\"a\": 1}\n\n[2]\r\n3"))
+            .map(JsonNode::toString)
+            .collect(Collectors.toList());
+        assertEquals(List.of("{\"a\":1}", "[2]", "3"), lines);
+    }
+
+    @Test
+    public void splitsOnLineBoundaries() {
+        final var spliterator = new LineSpliterator(ByteBuffer.wrap(inputJson.getBytes(UTF_8)), new JsonParser());
+        assertNotNull(spliterator.trySplit());
+        final int[] count = new int[1];
+        spliterator.forEachRemaining(node -> count[0]++);
+        assertEquals(500, count[0], 30);
+    }
+
+    @Test
+    public void parallelRecords() throws Exception {
+        final Path file = Files.createTempFile("roles", ".ndjson");
+        try {
+            Files.writeString(file, inputJson);
+            final List<RoleRecord> roles = JDux.parseLines(file, RoleRecord.class)
+                .parallel()
+                .collect(Collectors.toList());
+            assertEquals(1000, roles.size());
+            for (int i = 0; i < roles.size(); i++)
+                assertEquals(new RoleRecord(i, "Role " + i), roles.get(i));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+}
@@ -3,11 +3,24 @@ package jdux;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import java.io.ByteArrayOutputStream;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
 import java.time.Instant;
 import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Collections.singletonList;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 public class JsonNodeTest {
 
@@ -53,6 +66,53 @@ public class JsonNodeTest {
         assertEquals(userRecord, user);
     }
 
+    @Test
+    public void recordMetadataIsCached() {
+        JDux.node(userRecord).toString();
+        var before = JDux.recordStats();
+        JDux.node(userRecord).toString();
+        JDux.parse(inputJson).asA(UserRecord.class);
+        var after = JDux.recordStats();
+        assertEquals(before.misses(), after.misses());
+        assertEquals(before.hits() + 4, after.hits());
+    }
+
+    @Test
+    public void sharedAndUnboxedValues() {
+        var values = JDux.parse("[true, false, null, -42, 2.5]").childrenIter();
+        assertSame(JsonNode.BooleanNode.TRUE, values.next());
+        assertSame(JsonNode.BooleanNode.FALSE, values.next());
+        assertSame(JsonNode.NullNode.INSTANCE, values.next());
+        assertEquals(-42L, ((JsonNode.NumberNode) values.next()).longValue());
+        assertEquals(2.5, ((JsonNode.NumberNode) values.next()).doubleValue(), 0.0);
+        var out = new StringWriter();
+        new JsonWriter().write(JDux.node(List.of(Long.MIN_VALUE, 0, 7, 1.5, 0.1f, true)), out);
+        assertEquals("[-9223372036854775808,0,7,1.5,0.1,true]", out.toString());
+    }
+
+    record Series(String name, long[] times, double[] values, boolean[] flags) {}
+
+    @Test
+    public void primitiveArrays() {
+        var series = new Series("cpu", new long[] { 1L, 2L, 3L }, new double[] { 0.5, 1.25, -2.0 }, new boolean[] { true, false });
+        var json = "{\"name\":\"cpu\",\"times\":[1,2,3],\"values\":[0.5,1.25,-2.0],\"flags\":[true,false]}";
+        assertEquals(json, new JsonWriter().toString(JDux.node(series)));
+        for (var mapped : List.of(JDux.parse(json).asA(Series.class), JDux.parse(json, Series.class))) {
+            assertTrue(Arrays.equals(series.times(), mapped.times()));
+            assertTrue(Arrays.equals(series.values(), mapped.values()));
+            assertTrue(Arrays.equals(series.flags(), mapped.flags()));
+        }
+        var ints = IntStream.range(0, 100).toArray();
+        assertTrue(Arrays.equals(ints, JDux.parse(new JsonWriter().toString(JDux.node(ints))).asA(int[].class)));
+    }
+
+    @Test
+    public void parseStraightToRecord() {
+        assertEquals(userRecord, JDux.parse(inputJson, UserRecord.class));
+        var withExtras = "{\"extra\": {\"roles\": [1, 2]}, \"name\": \"Manager\", \"tags\": [\"a\"]}";
+        assertEquals(new RoleRecord(0, "Manager"), JDux.parse(withExtras, RoleRecord.class));
+    }
+
     @Test
     public void prettyOutput() {
         var node = JDux.parse(inputJson);
@@ -65,4 +125,285 @@ public class JsonNodeTest {
         assertEquals(inputJson, node.jsonString());
     }
 
+    @Test
+    public void escapedStringsDecodeOnDemand() {
+        var node = (ObjectNode) JDux.parse("{\"quote\":\"say \\\"hi\\\"\\n\\u00e9\"}");
+        assertEquals("say \"hi\"\n\u00e9", node.get("quote").asA(String.class));
+        assertEquals("{\"quote\":\"say \\\"hi\\\"\\n\\u00e9\"}", node.toString());
+    }
+
+    @Test
+    public void badUnicodeEscapesRejected() {
+        for (String json : List.of("\"\\u12\"", "\"ab\\u\"", "\"\\u12G4\"")) {
+            try {
+                JDux.parse(json).asA(String.class);
+                throw new AssertionError("Expected " + json + " to be rejected");
+            } catch (JsonParseException e) {
+                assertTrue(e.getMessage(), e.getMessage().contains("escape"));
+            }
+        }
+        assertEquals("\u00e9\u00C9", JDux.parse("\"\\u00e9\\u00C9\"").asA(String.class));
+    }
+
+    @Test
+    public void repeatedKeysShareOneString() {
+        var parser = new JsonParser();
+        var first = (ObjectNode) parser.parse(TextInput.wrap(inputJson));
+        var second = (ObjectNode) parser.parse(TextInput.wrap(inputJson));
+        assertEquals(first.toString(), second.toString());
+        var firstLabel = first.children().findFirst().orElseThrow().label();
+        var secondLabel = second.children().findFirst().orElseThrow().label();
+        assertSame(firstLabel, secondLabel);
+        assertEquals(4, parser.symbols().size());
+        assertEquals(8, parser.symbols().stats().hits());
+    }
+
+    @Test
+    public void parallelArrayElements() {
+        final String json = IntStream.range(0, 1000)
+            .mapToObj(i -> "{\"id\": " + i + ", \"name\": \"Role " + i + "\"}")
+            .collect(Collectors.joining(",\n", "[", "]"));
+        var node = (ArrayNode) JDux.parse(ByteBuffer.wrap(json.getBytes(UTF_8)));
+        var spliterator = node.children().spliterator();
+        var prefix = spliterator.trySplit();
+        assertTrue(prefix != null);
+        assertEquals(500, prefix.estimateSize());
+        assertEquals(500, spliterator.estimateSize());
+        var roles = node.children(RoleRecord.class).parallel().collect(Collectors.toList());
+        assertEquals(1000, roles.size());
+        for (int i = 0; i < roles.size(); i++)
+            assertEquals(new RoleRecord(i, "Role " + i), roles.get(i));
+        assertEquals(new RoleRecord(999, "Role 999"), node.get(999).asA(RoleRecord.class));
+    }
+
+    record AccountId(long value) {}
+
+    record Account(AccountId id, UUID key, Thread.State state, List<AccountId> linked) {}
+
+    record Page<T>(int number, List<T> items) {}
+
+    @Test
+    public void typeCodecs() {
+        JDux.register(AccountId.class, new TypeCodec<>() {
+            @Override
+            public AccountId decode(JsonNode node) {
+                return new AccountId(node.asA(long.class));
+            }
+            @Override
+            public JsonNode encode(AccountId value) {
+                return new JsonNode.NumberNode(value.value());
+            }
+        });
+        var account = new Account(new AccountId(42), UUID.fromString("123e4567-e89b-12d3-a456-426614174000"),
+            Thread.State.BLOCKED, List.of(new AccountId(7)));
+        var json = new JsonWriter().toString(JDux.node(account));
+        assertEquals("{\"id\":42,\"key\":\"123e4567-e89b-12d3-a456-426614174000\",\"state\":\"BLOCKED\",\"linked\":[7]}", json);
+        assertEquals(account, JDux.parse(json).asA(Account.class));
+        assertEquals(account, JDux.parse(json, Account.class));
+    }
+
+    @Test
+    public void genericRecords() {
+        record Holder(Page<RoleRecord> page) {}
+        var type = Holder.class.getRecordComponents()[0].getGenericType();
+        var page = new Page<>(2, List.of(new RoleRecord(1, "admin")));
+        var node = JDux.node(page);
+        assertEquals(page, node.asA(type));
+        assertEquals(new Holder(page), JDux.parse("{\"page\":" + node + "}", Holder.class));
+    }
+
+    @Test
+    public void writeToChannel() {
+        final String json = IntStream.range(0, 20000)
+            .mapToObj(i -> "{\"id\":" + (i - 10000) + ",\"name\":\"r\u00f4le \u2603 \ud83d\ude00 " + i + "\"}")
+            .collect(Collectors.joining(",", "[", "]"));
+        var node = JDux.parse(json);
+        var expected = new StringBuilder();
+        JDux.write(node, expected);
+        var bytes = new ByteArrayOutputStream();
+        JDux.write(node, Channels.newChannel(bytes));
+        assertEquals(expected.toString(), bytes.toString(UTF_8));
+    }
+
+    @Test
+    public void escapedStrings() {
+        var node = JDux.node(Map.of("say \"hi\"", "tab\there\u0001 \\ done"));
+        var json = new JsonWriter().toString(node);
+        assertEquals("{\"say \\\"hi\\\"\":\"tab\\there\\u0001 \\\\ done\"}", json);
+        var parsed = (ObjectNode) JDux.parse(json);
+        var child = parsed.children().findFirst().orElseThrow();
+        assertEquals("say \"hi\"", child.label());
+        assertEquals("tab\there\u0001 \\ done", child.unlabelled().asA(String.class));
+        assertEquals(json, new JsonWriter().toString(parsed));
+    }
+
+    @Test
+    public void parallelWriteMatchesSequential() {
+        var roles = IntStream.range(0, 5000).mapToObj(i -> new RoleRecord(i, "Role " + i)).collect(Collectors.toList());
+        var node = JDux.node(Map.of("roles", roles, "first", roles.get(0)));
+        for (boolean pretty : new boolean[] { false, true }) {
+            var sequential = new JsonWriter(pretty, "\t").toString(node);
+            var parallel = new JsonWriter(pretty, "\t").setParallel(true).toString(node);
+            assertEquals(sequential, parallel);
+        }
+    }
+
+    @Test
+    public void parallelWriteOfParsedArrays() {
+        var json = IntStream.range(0, 5000)
+            .mapToObj(i -> "{\"id\": " + i + ", \"tags\": [\"t" + i + "\", {\"n\": [" + i + "]}]}")
+            .collect(Collectors.joining(", ", "[", "]"));
+        var bytes = json.getBytes(UTF_8);
+        for (boolean pretty : new boolean[] { false, true }) {
+            var expected = new JsonWriter(pretty, "\t").toString(JDux.parse(json));
+            var parallel = new JsonWriter(pretty, "\t").setParallel(true);
+            for (boolean recall : new boolean[] { true, false }) {
+                var parser = new JsonParser(recall);
+                assertEquals(expected, parallel.toString(parser.parse(TextInput.wrap(json))));
+                assertEquals(expected, parallel.toString(parser.parse(TextInput.wrap(ByteBuffer.wrap(bytes)))));
+                assertEquals(expected, parallel.toString(parser.rescan(false).parse(TextInput.wrap(ByteBuffer.wrap(bytes)))));
+            }
+        }
+    }
+
+    @Test
+    public void nonAsciiDigitsRejected() {
+        for (String json : List.of("[1\u0663]", "\u0663", "1.\u0663", "1e\u0663")) {
+            try {
+                JDux.parse(json).jsonString();
+                throw new AssertionError("Expected " + json + " to be rejected");
+            } catch (JsonParseException e) {
+                // expected
+            }
+        }
+    }
+
+    @Test
+    public void parserModesDontChangeSharedParser() {
+        var parser = new JsonParser();
+        var streaming = parser.recall(false).rescan(false);
+        assertSame(parser.symbols(), streaming.symbols());
+        var node = (ArrayNode) parser.parse(TextInput.wrap("[1, 2, 3]"));
+        assertEquals(3, node.children().count());
+        assertEquals("node is recalled by the original parser", 3, node.children().count());
+    }
+
+    @Test
+    public void elementOffsetsSkipNestedValues() {
+        var json = "[ 1, \"a,]\\\"\", {\"x\": [1, 2]}, [3,[4]] ,true,null, -2.5e3 ]";
+        var node = (ArrayNode) JDux.parse(ByteBuffer.wrap(json.getBytes(UTF_8)));
+        var expected = List.of("1", "\"a,]\\\"\"", "{\"x\":[1,2]}", "[3,[4]]", "true", "null", "-2.5e3");
+        var spliterator = node.children().spliterator();
+        assertEquals(3, spliterator.trySplit().estimateSize());
+        assertEquals(4, spliterator.estimateSize());
+        for (int i = 0; i < expected.size(); i++)
+            assertEquals(expected.get(i), node.get(i).toString());
+    }
+
+    @Test
+    public void recordAccessorsAreBound() {
+        record Point(int x, double y, String label) {}
+        var metadata = RecordMetadata.of(Point.class);
+        assertTrue(metadata.isBound());
+        var point = new Point(1, 2.5, "a");
+        assertEquals(1, metadata.get(point, 0));
+        assertEquals(2.5, metadata.get(point, 1));
+        assertEquals(point, metadata.create(new Object[] { 1, 2.5, "a" }));
+    }
+
+    @Test
+    public void narrowingChecksRange() {
+        assertTrue(Arrays.equals(new byte[] { -128, 127 }, JDux.parse("[-128, 127]").asA(byte[].class)));
+        List<Runnable> outOfRange = List.of(
+            () -> JDux.parse("[300]").asA(byte[].class),
+            () -> JDux.parse("[40000]", short[].class),
+            () -> JDux.parse("[3000000000]").asA(int[].class),
+            () -> JDux.parse("3000000000").asA(int.class),
+            () -> JDux.parse("99999999999999999999").asA(long.class),
+            () -> JDux.parse("300").asA(Byte.class)
+        );
+        for (Runnable conversion : outOfRange) {
+            try {
+                conversion.run();
+                throw new AssertionError("Expected out of range");
+            } catch (JsonReflectException e) {
+                assertTrue(e.getMessage().contains("out of range"));
+            }
+        }
+    }
+
+    enum Shade {
+        LIGHT {
+            @Override
+            public String toString() {
+                return "pale";
+            }
+        },
+        DARK;
+
+        @Override
+        public String toString() {
+            return name().toLowerCase();
+        }
+    }
+
+    record Painted(Shade shade, List<Shade> shades) {}
+
+    @Test
+    public void enumsRoundTripByName() {
+        var painted = new Painted(Shade.DARK, List.of(Shade.LIGHT, Shade.DARK));
+        var json = new JsonWriter().toString(JDux.node(painted));
+        assertEquals("{\"shade\":\"DARK\",\"shades\":[\"LIGHT\",\"DARK\"]}", json);
+        assertEquals(painted, JDux.parse(json).asA(Painted.class));
+        assertEquals(painted, JDux.parse(json, Painted.class));
+        assertEquals("\"LIGHT\"", new JsonWriter().toString(JDux.node(Shade.LIGHT)));
+    }
+
+    record Reals(double d, float f, float[] fs) {}
+
+    @Test
+    public void realsWrittenWithoutStrings() {
+        var node = JDux.node(new Reals(0.1, 1.1f, new float[] { 2.5f, 0.3f }));
+        var expected = "{\"d\":0.1,\"f\":1.1,\"fs\":[2.5,0.3]}";
+        assertEquals(expected, new JsonWriter().toString(node));
+        var out = new StringWriter();
+        new JsonWriter().write(node, out);
+        assertEquals(expected, out.toString());
+        assertEquals(1.1f, ((ObjectNode) node).get("f").asA(float.class), 0f);
+    }
+
+    @Test
+    public void nonFiniteRealsRejected() {
+        var values = List.<Runnable>of(
+            () -> JDux.node(new Reals(Double.NaN, 0f, new float[0])).jsonString(),
+            () -> JDux.node(new Reals(0, Float.POSITIVE_INFINITY, new float[0])).jsonString(),
+            () -> JDux.node(new Reals(0, 0f, new float[] { Float.NaN })).jsonString(),
+            () -> JDux.node(new double[] { Double.NEGATIVE_INFINITY }).jsonString());
+        for (Runnable write : values) {
+            try {
+                write.run();
+                throw new AssertionError("Expected non-finite number to be rejected");
+            } catch (IllegalArgumentException e) {
+                assertTrue(e.getMessage().endsWith(" as JSON"));
+            }
+        }
+    }
+
+    record Tagged<T>(Comparable<T> value, T other) {}
+
+    @Test
+    public void valueNodesRejectUnknownTypes() {
+        var comparable = Tagged.class.getRecordComponents()[0].getGenericType();
+        assertEquals(true, JDux.parse("true").asA(comparable));
+        var variable = Tagged.class.getRecordComponents()[1].getGenericType();
+        for (var node : List.of(JDux.parse("\"x\""), JDux.parse("3"), JDux.parse("true"))) {
+            try {
+                node.asA(variable);
+                throw new AssertionError("Expected unsupported type");
+            } catch (JsonReflectException e) {
+                assertTrue(e.getMessage().contains("Unsupported type"));
+            }
+        }
+    }
+
 }
@@ -0,0 +1,112 @@
+package jdux;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static jdux.JsonToken.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class JsonReaderTest {
+
+    private final String inputJson = """
+        {
+          "id": 123,
+          "name": "Bob \\"Loblaw\\"",
+          "active": true,
+          "score": -1.5e2,
+          "roles": [{"id": 1, "name": "Manager"}, null],
+          "tags": []
+        }""";
+
+    @Test
+    public void tokens() {
+        var reader = JDux.reader(inputJson);
+        List<JsonToken> tokens = new ArrayList<>();
+        for (var token = reader.next(); token != END_DOCUMENT; token = reader.next())
+            tokens.add(token);
+        assertEquals(List.of(
+            START_OBJECT,
+            NAME, NUMBER,
+            NAME, STRING,
+            NAME, TRUE,
+            NAME, NUMBER,
+            NAME, START_ARRAY, START_OBJECT, NAME, NUMBER, NAME, STRING, END_OBJECT, NULL, END_ARRAY,
+            NAME, START_ARRAY, END_ARRAY,
+            END_OBJECT
+        ), tokens);
+    }
+
+    @Test
+    public void valuesAndNames() {
+        var reader = JDux.reader(inputJson);
+        assertEquals(START_OBJECT, reader.next());
+        assertNull(reader.currentName());
+        assertEquals(NAME, reader.next());
+        assertEquals("id", reader.currentName());
+        assertEquals(NUMBER, reader.next());
+        assertEquals(123, reader.getInt());
+        reader.next();
+        reader.next();
+        assertEquals("Bob \"Loblaw\"", reader.getString());
+        reader.next();
+        reader.next();
+        assertTrue(reader.getBoolean());
+        reader.next();
+        reader.next();
+        assertEquals(-150.0, reader.getDouble(), 0.0);
+        reader.next();
+        assertEquals(START_ARRAY, reader.next());
+        assertEquals("roles", reader.currentName());
+        assertEquals(END_ARRAY, reader.skipChildren());
+        assertEquals("roles", reader.currentName());
+        assertEquals(NAME, reader.next());
+        assertEquals("tags", reader.getString());
+    }
+
+    @Test
+    public void skipChildrenOfNestedObject() {
+        var reader = JDux.reader("[{\"a\": {\"b\": \"]}\"}}, 2]");
+        reader.next();
+        assertEquals(START_OBJECT, reader.next());
+        assertEquals(END_OBJECT, reader.skipChildren());
+        assertEquals(1, reader.depth());
+        assertEquals(NUMBER, reader.next());
+        assertEquals(2L, reader.getLong());
+        assertEquals(END_ARRAY, reader.next());
+        assertEquals(END_DOCUMENT, reader.next());
+    }
+
+    @Test
+    public void escapedNames() {
+        var reader = JDux.reader("{\"a\\\"b\": 1, \"\\u0041\": 2, \"plain\": 3}");
+        reader.next();
+        reader.next();
+        assertEquals("a\"b", reader.currentName());
+        assertEquals(NUMBER, reader.next());
+        assertEquals(1, reader.getInt());
+        assertEquals(NAME, reader.next());
+        assertEquals("A", reader.currentName());
+        reader.next();
+        assertEquals(NAME, reader.next());
+        assertEquals("plain", reader.currentName());
+        assertEquals(new RoleRecord(7, "x"), JDux.parse("{\"i\\u0064\": 7, \"n\\u0061me\": \"x\"}", RoleRecord.class));
+    }
+
+    @Test(expected = JsonParseException.class)
+    public void nonAsciiDigit() {
+        JDux.reader("1\u0663").readValue(long.class);
+    }
+
+    @Test(expected = JsonReflectException.class)
+    public void intOutOfRange() {
+        var reader = JDux.reader("[3000000000]");
+        reader.next();
+        reader.next();
+        reader.getInt();
+    }
+
+}
@@ -0,0 +1,54 @@
+package jdux;
+
+import org.junit.Test;
+
+import java.nio.CharBuffer;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class PoolTest {
+
+    @Test
+    public void reusesReturnedItems() {
+        Pool<CharBuffer> pool = Pool.sized(CharBuffer::allocate, CharBuffer::capacity, 4, 16, 64);
+        var small = pool.get();
+        var large = pool.get(20);
+        assertEquals(16, small.capacity());
+        assertEquals(64, large.capacity());
+        pool.put(small);
+        pool.put(large);
+        assertSame(small, pool.get());
+        assertSame(large, pool.get(64));
+        assertEquals(100, pool.get(100).capacity());
+        assertEquals(new CacheStats(2, 2), pool.stats());
+    }
+
+    @Test
+    public void neverHandsOutTheSameItemTwice() throws InterruptedException {
+        Pool<Object> pool = Pool.concurrent(Object::new, 4);
+        var inUse = ConcurrentHashMap.newKeySet();
+        var failures = new ConcurrentHashMap<String, Boolean>();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 10_000; i++) {
+            executor.execute(() -> {
+                var item = pool.get();
+                if (!inUse.add(item))
+                    failures.put("shared", true);
+                inUse.remove(item);
+                pool.put(item);
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(0, failures.size());
+        assertEquals(10_000, pool.stats().requests());
+        assertTrue(pool.stats().hits() > 0);
+    }
+
+}
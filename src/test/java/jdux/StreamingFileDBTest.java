@@ -1,8 +1,20 @@
 package jdux;
 
+import org.junit.Test;
+
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 public class StreamingFileDBTest extends AbstractStreamingJsonDBTest {
 
@@ -16,4 +28,50 @@ public class StreamingFileDBTest extends AbstractStreamingJsonDBTest {
         }
     }
 
+    @Test
+    public void untouchedSubtreesAreCopied() throws IOException {
+        Path temp = Files.createTempFile("test", "json");
+        Files.writeString(temp, "{\"user\": {\"name\": \"Steve\"}, \"friends\": [ {\"name\" : \"Joe\"} ]}");
+        JDux.fileDB(temp).update("user", new TestUserRecord("Bob", 43));
+        assertEquals("{\"user\":{\"name\":\"Bob\",\"age\":43},\"friends\":[ {\"name\" : \"Joe\"} ]}", Files.readString(temp));
+    }
+
+    @Test
+    public void failedWriteKeepsFile() throws IOException {
+        Path dir = Files.createTempDirectory("test");
+        Path file = Files.writeString(dir.resolve("db.json"), "{\"user\": {\"name\": \"Steve\"}}");
+        try {
+            JDux.fileDB(file).update("user", user -> {
+                throw new IllegalStateException("failed");
+            });
+            throw new AssertionError("Expected update to fail");
+        } catch (IllegalStateException e) {
+            assertEquals("failed", e.getMessage());
+        }
+        assertEquals("{\"user\": {\"name\": \"Steve\"}}", Files.readString(file));
+        try (Stream<Path> files = Files.list(dir)) {
+            assertEquals(List.of(file), files.collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    public void replacingKeepsPermissionsAndLinks() throws IOException {
+        Path dir = Files.createTempDirectory("test");
+        if (!Files.getFileStore(dir).supportsFileAttributeView(PosixFileAttributeView.class))
+            return;
+        Path file = Files.writeString(dir.resolve("db.json"), "{\"user\": {\"name\": \"Steve\"}}");
+        Set<PosixFilePermission> permissions = PosixFilePermissions.fromString("rw-r--r--");
+        Files.setPosixFilePermissions(file, permissions);
+        Path link = Files.createSymbolicLink(dir.resolve("link.json"), file);
+
+        JDux.fileDB(link).update("user", new TestUserRecord("Bob", 43));
+
+        assertTrue(Files.isSymbolicLink(link));
+        assertEquals("{\"user\":{\"name\":\"Bob\",\"age\":43}}", Files.readString(file));
+        assertEquals(permissions, Files.getPosixFilePermissions(file));
+        try (Stream<Path> files = Files.list(dir)) {
+            assertEquals(Set.of(file, link), files.collect(Collectors.toSet()));
+        }
+    }
+
 }
@@ -0,0 +1,96 @@
+package jdux;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.stream.Collectors.joining;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class Utf8TextInputTest {
+
+    private final String inputJson = """
+        {"name": "Zo\u00eb \\"\u03a9\\" \ud83d\ude00", "city": "\u00c5re\\n", "tags": ["\u65e5\u672c", "x"]}""";
+
+    @Test
+    public void parseFromBuffer() {
+        var node = JDux.parse(ByteBuffer.wrap(inputJson.getBytes(UTF_8)));
+        assertEquals("Zo\u00eb \"\u03a9\" \ud83d\ude00", ((ObjectNode) node).get("name").asA(String.class));
+        assertEquals("\u00c5re\n", ((ObjectNode) node).get("city").asA(String.class));
+        assertEquals("\u65e5\u672c", ((ArrayNode) ((ObjectNode) node).get("tags")).get(0).asA(String.class));
+    }
+
+    @Test
+    public void parseFromChannelAcrossBufferBoundaries() {
+        var padding = "\"" + "-".repeat(8190) + "\"";
+        var json = "[" + padding + ", \"\u65e5\u672c\ud83d\ude00\"]";
+        var in = Channels.newChannel(new ByteArrayInputStream(json.getBytes(UTF_8)));
+        var node = (ArrayNode) JDux.parse(in);
+        assertEquals("\u65e5\u672c\ud83d\ude00", node.get(1).asA(String.class));
+    }
+
+    @Test
+    public void mappedFileRevisitsChildren() throws Exception {
+        var file = Files.createTempFile("test", "json");
+        Files.writeString(file, inputJson, UTF_8);
+        var node = (ObjectNode) JDux.parse(file);
+        var tags = (ArrayNode) node.get("tags");
+        assertEquals("x", tags.get(1).asA(String.class));
+        assertEquals("\"\u65e5\u672c\",\"x\"", tags.children().map(JsonNode::toString).collect(joining(",")));
+        assertEquals(3, node.children().count());
+        assertEquals("\u00c5re\n", node.get("city").asA(String.class));
+    }
+
+    @Test
+    public void lenientSourceIsWrittenAsJson() throws Exception {
+        var file = Files.createTempFile("test", "json");
+        Files.writeString(file, "{ a : 'x' ,  \"b\":[1,  2], \"c\": \"it\\'s\" }", UTF_8);
+        var expected = "{\"a\":\"x\",\"b\":[1,2],\"c\":\"it's\"}";
+        var writer = new JsonWriter();
+        var node = JDux.parse(file);
+        assertEquals(expected, writer.toString(node));
+        var out = new ByteArrayOutputStream();
+        var utf8 = new Utf8Output(Channels.newChannel(out));
+        writer.write(node, utf8);
+        utf8.flush();
+        assertEquals(expected, out.toString(UTF_8));
+        assertEquals(expected, writer.toString(JDux.parse(Files.readString(file))));
+    }
+
+    @Test
+    public void malformedInputIsParseError() {
+        for (byte[] bytes : List.of(new byte[] { '[', '1', ',', (byte) 0xFF, ']' }, new byte[] { '[', (byte) 0xE6 })) {
+            try {
+                JDux.parse(ByteBuffer.wrap(bytes)).jsonString();
+                throw new AssertionError("Expected malformed input to be rejected");
+            } catch (JsonParseException e) {
+                assertTrue(e.getMessage(), e.getMessage().contains("UTF-8"));
+            }
+        }
+    }
+
+    @Test(expected = JsonParseException.class)
+    public void malformedFeedIsParseError() {
+        JDux.feedReader().feed(ByteBuffer.wrap(new byte[] { '[', (byte) 0xFF }));
+    }
+
+    @Test(expected = JsonParseException.class)
+    public void truncatedFeedIsParseError() {
+        JDux.feedReader().feed(ByteBuffer.wrap(new byte[] { '"', (byte) 0xE6 })).endOfInput();
+    }
+
+    @Test
+    public void skipsSubtreesContainingBracketsInStrings() {
+        var json = "{\"a\": {\"x\": \"}]\\\"\", \"y\": ['{']}, \"b\": 2}";
+        var node = (ObjectNode) JDux.parse(ByteBuffer.wrap(json.getBytes(UTF_8)));
+        assertEquals(2, (int) node.get("b").asA(Integer.class));
+    }
+
+}